@@ -0,0 +1,353 @@
+package rollingcubes.export;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import com.google.inject.Guice;
+
+import org.tinylog.Logger;
+
+import rollingcubes.results.GameResult;
+import rollingcubes.results.GameResultDao;
+import util.cli.Options;
+import util.guice.PersistenceModule;
+
+/**
+ * Exports the results into a compact columnar file for offline analysis.
+ * The results are read in chunks with keyset pagination, thus the export
+ * runs in memory proportional to the chunk size and the number of distinct
+ * players, regardless of the number of results.
+ *
+ * <p>The file is a deflate-compressed stream that starts with the 4 bytes
+ * {@code RCX1}, followed by a block for each chunk of results, and ends
+ * with a block of 0 rows. A block consists of the columns below:</p>
+ * <ol>
+ *     <li>the number of rows</li>
+ *     <li>the number of players that appear for the first time, followed
+ *     by the length and the UTF-8 bytes of the name of each, the names are
+ *     assigned consecutive codes in the order of their first appearance</li>
+ *     <li>the ids, as differences from the previous id</li>
+ *     <li>the codes of the players</li>
+ *     <li>whether the results are solved, as a bitset of
+ *     {@code (rows + 7) / 8} bytes</li>
+ *     <li>the number of steps</li>
+ *     <li>the durations in nanoseconds</li>
+ *     <li>the timestamps of creation in microseconds since the epoch, as
+ *     zigzag-encoded differences from the previous timestamp</li>
+ * </ol>
+ *
+ * <p>Numbers are written as unsigned LEB128 variable-length integers, and
+ * the differences carry over from block to block. Timestamps are written
+ * with microsecond precision, that is the precision of the database.</p>
+ */
+public class ResultExporter {
+
+    private static final byte[] MAGIC = {'R', 'C', 'X', '1'};
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The default number of results read from the database at a time.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 10_000;
+
+    private final GameResultDao gameResultDao;
+
+    private final int chunkSize;
+
+    /**
+     * Creates a {@code ResultExporter} object.
+     *
+     * @param gameResultDao the DAO used to read the results
+     * @param chunkSize the number of results read from the database at a
+     *                  time
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive
+     */
+    public ResultExporter(GameResultDao gameResultDao, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        this.gameResultDao = gameResultDao;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Exports all results in ascending order of their ids.
+     *
+     * @param out the output stream to write to, that is not closed
+     * @return the number of results exported
+     * @throws IOException if an I/O error occurs
+     */
+    public long export(OutputStream out) throws IOException {
+        var deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            var deflaterOut = new DeflaterOutputStream(out, deflater, BUFFER_SIZE);
+            var writer = new BlockWriter(deflaterOut);
+            deflaterOut.write(MAGIC);
+            var count = 0L;
+            var lastId = 0L;
+            List<GameResult> chunk;
+            do {
+                chunk = gameResultDao.findAfter(lastId, chunkSize);
+                if (!chunk.isEmpty()) {
+                    writer.write(chunk);
+                    count += chunk.size();
+                    lastId = chunk.get(chunk.size() - 1).getId();
+                }
+            } while (chunk.size() == chunkSize);
+            writer.write(List.of());
+            writer.flush();
+            deflaterOut.finish();
+            return count;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Reads the results of an exported file.
+     *
+     * @param in the input stream to read from, that is not closed
+     * @param action the action performed on each result in the order of
+     *               their ids
+     * @return the number of results read
+     * @throws IOException if an I/O error occurs or the content is not a
+     * valid export
+     */
+    public static long read(InputStream in, Consumer<GameResult> action) throws IOException {
+        var inflater = new Inflater();
+        try {
+            var data = new DataInputStream(new BufferedInputStream(new InflaterInputStream(in, inflater, BUFFER_SIZE),
+                    BUFFER_SIZE));
+            var magic = new byte[MAGIC.length];
+            data.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a result export");
+            }
+            var players = new ArrayList<String>();
+            var count = 0L;
+            var id = 0L;
+            var created = 0L;
+            int rows;
+            while ((rows = readInt(data)) > 0) {
+                var newPlayers = readInt(data);
+                for (var i = 0; i < newPlayers; i++) {
+                    var name = new byte[readInt(data)];
+                    data.readFully(name);
+                    players.add(new String(name, StandardCharsets.UTF_8));
+                }
+                var ids = new long[rows];
+                for (var i = 0; i < rows; i++) {
+                    ids[i] = id += readLong(data);
+                }
+                var codes = new int[rows];
+                for (var i = 0; i < rows; i++) {
+                    codes[i] = readInt(data);
+                    if (codes[i] >= players.size()) {
+                        throw new IOException("Invalid player code: " + codes[i]);
+                    }
+                }
+                var solved = new byte[(rows + 7) / 8];
+                data.readFully(solved);
+                var steps = new int[rows];
+                for (var i = 0; i < rows; i++) {
+                    steps[i] = readInt(data);
+                }
+                var durations = new long[rows];
+                for (var i = 0; i < rows; i++) {
+                    durations[i] = readLong(data);
+                }
+                for (var i = 0; i < rows; i++) {
+                    var delta = readLong(data);
+                    created += (delta >>> 1) ^ -(delta & 1);
+                    action.accept(new GameResult(ids[i], players.get(codes[i]),
+                            (solved[i >>> 3] & 1 << (i & 7)) != 0, steps[i], Duration.ofNanos(durations[i]),
+                            ZonedDateTime.ofInstant(Instant.ofEpochSecond(Math.floorDiv(created, 1_000_000),
+                                    Math.floorMod(created, 1_000_000) * 1000), ZoneId.systemDefault())));
+                }
+                count += rows;
+            }
+            return count;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int readInt(DataInputStream in) throws IOException {
+        var value = readLong(in);
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Integer out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    private static long readLong(DataInputStream in) throws IOException {
+        var value = 0L;
+        for (var shift = 0; shift < 64; shift += 7) {
+            var b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7f) << shift;
+            if (b < 0x80) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    /**
+     * Encodes the blocks into a buffer, and keeps the state carried over
+     * from block to block.
+     */
+    private static class BlockWriter {
+
+        private final OutputStream out;
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        private int position;
+
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        private long lastId;
+
+        private long lastCreated;
+
+        private BlockWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        private void write(List<GameResult> results) throws IOException {
+            var rows = results.size();
+            writeLong(rows);
+            var playerCodes = new int[rows];
+            var newPlayers = new ArrayList<byte[]>();
+            for (var i = 0; i < rows; i++) {
+                var player = results.get(i).getPlayer();
+                var code = codes.get(player);
+                if (code == null) {
+                    code = codes.size();
+                    codes.put(player, code);
+                    newPlayers.add(player.getBytes(StandardCharsets.UTF_8));
+                }
+                playerCodes[i] = code;
+            }
+            writeLong(newPlayers.size());
+            for (var name : newPlayers) {
+                writeLong(name.length);
+                writeBytes(name);
+            }
+            for (var result : results) {
+                writeLong(result.getId() - lastId);
+                lastId = result.getId();
+            }
+            for (var code : playerCodes) {
+                writeLong(code);
+            }
+            var solved = new byte[(rows + 7) / 8];
+            for (var i = 0; i < rows; i++) {
+                if (results.get(i).isSolved()) {
+                    solved[i >>> 3] |= 1 << (i & 7);
+                }
+            }
+            writeBytes(solved);
+            for (var result : results) {
+                writeLong(result.getSteps());
+            }
+            for (var result : results) {
+                writeLong(result.getDuration().toNanos());
+            }
+            for (var result : results) {
+                var created = result.getCreated();
+                var micros = created.toEpochSecond() * 1_000_000 + created.getNano() / 1000;
+                var delta = micros - lastCreated;
+                writeLong(delta << 1 ^ delta >> 63);
+                lastCreated = micros;
+            }
+        }
+
+        private void writeLong(long value) throws IOException {
+            if (position > buffer.length - 10) {
+                flush();
+            }
+            while ((value & ~0x7fL) != 0) {
+                buffer[position++] = (byte) (value | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            if (position + bytes.length > buffer.length) {
+                flush();
+                if (bytes.length > buffer.length) {
+                    out.write(bytes);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void flush() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+
+    }
+
+    /**
+     * Exports the results of the database into a file. Options are given in
+     * {@code --name=value} form: {@code --output} the path of the file
+     * (default {@code results.rcx}), {@code --chunk-size} the number of
+     * results read at a time (default 10000), and {@code --url} the JDBC URL
+     * of the database (default is the one of the persistence unit).
+     *
+     * @param args the command line arguments
+     * @throws IOException if an I/O error occurs
+     */
+    public static void main(String[] args) throws IOException {
+        var options = Options.parse(args);
+        var output = Path.of(options.getOrDefault("output", "results.rcx"));
+        var chunkSize = Integer.parseInt(options.getOrDefault("chunk-size", String.valueOf(DEFAULT_CHUNK_SIZE)));
+        var injector = Guice.createInjector(options.containsKey("url")
+                ? new PersistenceModule("rolling-cubes", Map.of("javax.persistence.jdbc.url", options.get("url")))
+                : new PersistenceModule("rolling-cubes"));
+        var exporter = new ResultExporter(injector.getInstance(GameResultDao.class), chunkSize);
+        Logger.info("Exporting results to {}", output);
+        var start = System.nanoTime();
+        long rows;
+        try (var out = Files.newOutputStream(output)) {
+            rows = exporter.export(out);
+        }
+        var seconds = (System.nanoTime() - start) / 1e9;
+        var bytes = Files.size(output);
+        System.out.printf("Rows exported: %d%n", rows);
+        System.out.printf("File size: %d bytes (%.1f bytes/row)%n", bytes, rows == 0 ? 0.0 : (double) bytes / rows);
+        System.out.printf("Elapsed time: %.3f s%n", seconds);
+        System.out.printf("Throughput: %.0f rows/s%n", rows / seconds);
+    }
+
+}
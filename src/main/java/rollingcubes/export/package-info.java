@@ -0,0 +1,4 @@
+/**
+ * Provides tools for exporting the game results for offline analysis.
+ */
+package rollingcubes.export;
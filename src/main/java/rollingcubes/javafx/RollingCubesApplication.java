@@ -1,11 +1,17 @@
 package rollingcubes.javafx;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.gluonhq.ignite.guice.GuiceContext;
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.multibindings.Multibinder;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
@@ -15,8 +21,14 @@ import javafx.stage.Stage;
 
 import org.tinylog.Logger;
 
+import rollingcubes.javafx.controller.OpeningController;
 import rollingcubes.results.GameResultDao;
+import rollingcubes.results.GameResultListener;
+import rollingcubes.results.Leaderboard;
+import rollingcubes.results.ResultJournal;
+import rollingcubes.solver.StartPositionGenerator;
 import util.guice.PersistenceModule;
+import util.metrics.Metrics;
 
 public class RollingCubesApplication extends Application {
 
@@ -26,23 +38,60 @@ public class RollingCubesApplication extends Application {
                 protected void configure() {
                      install(new PersistenceModule("rolling-cubes"));
                      bind(GameResultDao.class);
+                     Multibinder.newSetBinder(binder(), GameResultListener.class).addBinding().to(Leaderboard.class);
                  }
+
+                @Provides
+                @Singleton
+                ResultJournal resultJournal(GameResultDao gameResultDao) throws IOException {
+                    return ResultJournal.open(ResultJournal.DEFAULT_PATH, 1024, gameResultDao);
+                }
             }
     ));
 
     @Inject
     private FXMLLoader fxmlLoader;
 
+    @Inject
+    private GameResultDao gameResultDao;
+
+    @Inject
+    private Leaderboard leaderboard;
+
+    // opened on startup so that the results of a previous run are recovered
+    @Inject
+    private ResultJournal resultJournal;
+
     @Override
     public void start(Stage stage) throws Exception {
         Logger.info("Starting application");
         context.init();
+        // precomputed in the background while the player enters their name
+        var warmUp = CompletableFuture.runAsync(StartPositionGenerator::getInstance)
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        Logger.error(e, "Failed to compute the start positions");
+                    }
+                });
+        CompletableFuture.runAsync(() -> leaderboard.rebuild(gameResultDao))
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        Logger.error(e, "Failed to load the leaderboard");
+                    }
+                });
+        Metrics.startReporting(Duration.ofMinutes(1));
         fxmlLoader.setLocation(getClass().getResource("/fxml/opening.fxml"));
         Parent root = fxmlLoader.load();
+        fxmlLoader.<OpeningController>getController().setWarmUp(warmUp);
         stage.setTitle("Rolling Cubes");
         stage.setResizable(false);
         stage.setScene(new Scene(root));
         stage.show();
     }
 
+    @Override
+    public void stop() throws IOException {
+        resultJournal.close();
+    }
+
 }
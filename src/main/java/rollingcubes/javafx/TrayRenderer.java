@@ -0,0 +1,79 @@
+package rollingcubes.javafx;
+
+import java.util.List;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.GridPane;
+
+import rollingcubes.state.RollingCubesState;
+
+/**
+ * Renders the tray of a {@link RollingCubesState} object on a game board.
+ * The renderer paints the whole board once when a state is attached, and
+ * after that it only updates the two cells affected by each move.
+ */
+public class TrayRenderer {
+
+    private final ImageView[][] imageViews = new ImageView[RollingCubesState.TRAY_SIZE][RollingCubesState.TRAY_SIZE];
+
+    private final List<Image> cubeImages;
+
+    private final RollingCubesState.RollListener rollListener = this::handleCubeRolled;
+
+    private RollingCubesState state;
+
+    /**
+     * Creates a {@code TrayRenderer} object.
+     *
+     * @param gameBoard the game board whose children are the image views of
+     *                  the cells in row-major order
+     * @param cubeImages the images of the cubes indexed by the value of
+     *                   {@link rollingcubes.state.Cube}
+     */
+    public TrayRenderer(GridPane gameBoard, List<Image> cubeImages) {
+        this.cubeImages = cubeImages;
+        for (var i = 0; i < RollingCubesState.TRAY_SIZE; i++) {
+            for (var j = 0; j < RollingCubesState.TRAY_SIZE; j++) {
+                imageViews[i][j] = (ImageView) gameBoard.getChildren().get(i * RollingCubesState.TRAY_SIZE + j);
+            }
+        }
+    }
+
+    /**
+     * Attaches the renderer to the state specified. The renderer is detached
+     * from the state previously attached, if any.
+     *
+     * @param state the state to be rendered
+     */
+    public void attach(RollingCubesState state) {
+        detach();
+        this.state = state;
+        for (var i = 0; i < RollingCubesState.TRAY_SIZE; i++) {
+            for (var j = 0; j < RollingCubesState.TRAY_SIZE; j++) {
+                paint(i, j);
+            }
+        }
+        state.addRollListener(rollListener);
+    }
+
+    /**
+     * Detaches the renderer from the state currently attached.
+     */
+    public void detach() {
+        if (state != null) {
+            state.removeRollListener(rollListener);
+            state = null;
+        }
+    }
+
+    private void handleCubeRolled(int fromRow, int fromCol, int toRow, int toCol) {
+        paint(fromRow, fromCol);
+        paint(toRow, toCol);
+    }
+
+    private void paint(int row, int col) {
+        imageViews[row][col].setImage(cubeImages.get(state.getCube(row, col).getValue()));
+    }
+
+}
@@ -2,14 +2,15 @@ package rollingcubes.javafx.controller;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.Iterator;
 import java.util.List;
 
 import javafx.animation.Animation;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
-import javafx.beans.binding.ObjectBinding;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -18,23 +19,43 @@ import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import javax.inject.Inject;
 
 import org.tinylog.Logger;
 
+import rollingcubes.javafx.TrayRenderer;
 import rollingcubes.results.GameResult;
-import rollingcubes.results.GameResultDao;
+import rollingcubes.results.ResultJournal;
+import rollingcubes.solver.Difficulty;
+import rollingcubes.solver.DistanceTable;
+import rollingcubes.solver.Solver;
+import rollingcubes.solver.StartPositionGenerator;
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
 import rollingcubes.state.RollingCubesState;
+import rollingcubes.tournament.Tournament;
 import util.javafx.ControllerHelper;
 import util.javafx.Stopwatch;
+import util.metrics.Counter;
+import util.metrics.Metrics;
 
 public class GameController {
 
+    private static final Counter movesCounter = Metrics.counter("game.moves");
+
+    private static final Counter solvedCounter = Metrics.counter("game.solved");
+
+    private static final int OPPONENT_COUNT = 3;
+
+    private static final Duration OPPONENT_MOVE_INTERVAL = Duration.ofMillis(800);
+
+    private static final Duration SOLUTION_MOVE_INTERVAL = Duration.ofMillis(500);
+
     @FXML
     private Label messageLabel;
 
@@ -47,17 +68,23 @@ public class GameController {
     @FXML
     private Label stopwatchLabel;
 
+    @FXML
+    private VBox opponentsBox;
+
     @FXML
     private Button resetButton;
 
     @FXML
     private Button giveUpFinishButton;
 
+    @FXML
+    private Button solutionButton;
+
     @Inject
     private FXMLLoader fxmlLoader;
 
     @Inject
-    private GameResultDao gameResultDao;
+    private ResultJournal resultJournal;
 
     private RollingCubesState gameState;
 
@@ -65,19 +92,70 @@ public class GameController {
 
     private String playerName;
 
+    private Difficulty difficulty = Difficulty.EASY;
+
     private IntegerProperty steps = new SimpleIntegerProperty();
 
-    private Instant startTime;
+    private TrayRenderer trayRenderer;
+
+    private final ChangeListener<Boolean> solvedListener = this::handleSolved;
+
+    private boolean tournamentMode;
+
+    private Tournament tournament;
 
-    private List<Image> cubeImages;
+    private Tournament.Progress[] shownProgress;
+
+    /**
+     * The moves of the solution being shown, or {@code null} if the
+     * solution is not being shown.
+     */
+    private Iterator<Direction> solution;
+
+    private boolean solutionShown;
+
+    private long lastSolutionMove;
+
+    /**
+     * Shows the progress of the opponents once per frame, so that the
+     * opponents may move at any rate without flooding the FX thread.
+     */
+    private final AnimationTimer opponentsTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            showOpponents();
+        }
+    };
+
+    /**
+     * Plays the moves of the solution one by one. The moves are requested
+     * from the solver only when they are played.
+     */
+    private final AnimationTimer solutionTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (now - lastSolutionMove >= SOLUTION_MOVE_INTERVAL.toNanos()) {
+                lastSolutionMove = now;
+                playSolutionMove();
+            }
+        }
+    };
 
     public void setPlayerName(String playerName) {
         this.playerName = playerName;
     }
 
+    public void setDifficulty(Difficulty difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public void setTournament(boolean tournamentMode) {
+        this.tournamentMode = tournamentMode;
+    }
+
     @FXML
     private void initialize() {
-        cubeImages = List.of(
+        var cubeImages = List.of(
                 new Image("/images/cube0.png"),
                 new Image("/images/cube1.png"),
                 new Image("/images/cube2.png"),
@@ -87,69 +165,162 @@ public class GameController {
                 new Image("/images/cube6.png")
         );
         Logger.info(cubeImages);
+        trayRenderer = new TrayRenderer(gameBoard, cubeImages);
         stepsLabel.textProperty().bind(steps.asString());
         stopwatchLabel.textProperty().bind(stopwatch.hhmmssProperty());
-        Platform.runLater(() -> messageLabel.setText(String.format("Good luck, %s!", playerName)));
-        resetGame();
+        Platform.runLater(() -> {
+            messageLabel.setText(String.format("Good luck, %s!", playerName));
+            resetGame();
+        });
     }
 
     private void resetGame() {
-        gameState = new RollingCubesState();
-        bindGameStateToUI();
+        stopSolution();
+        solutionShown = false;
+        solutionButton.setDisable(false);
+        if (gameState != null) {
+            gameState.solvedProperty().removeListener(solvedListener);
+        }
+        var start = StartPositionGenerator.getInstance().next(difficulty.getDistance());
+        gameState = new RollingCubesState(PackedState.toArray(start));
+        Logger.info("Starting a game at distance {} from the goal", difficulty.getDistance());
+        trayRenderer.attach(gameState);
+        gameState.solvedProperty().addListener(solvedListener);
         steps.set(0);
-        startTime = Instant.now();
         if (stopwatch.getStatus() == Animation.Status.PAUSED) {
             stopwatch.reset();
         }
         stopwatch.start();
+        if (tournamentMode) {
+            startTournament(start);
+        }
     }
 
-    private void bindGameStateToUI() {
-        for (var i = 0; i < 3; i++) {
-            for (var j = 0; j < 3; j++) {
-                var imageView = (ImageView) gameBoard.getChildren().get(i * 3 + j);
-                var p = gameState.cubeProperty(i, j);
-                imageView.imageProperty().bind(
-                        new ObjectBinding<Image>() {
-                            {
-                                super.bind(p);
-                            }
-                            @Override
-                            protected Image computeValue() {
-                                return cubeImages.get(p.get().getValue());
-                            }
-                        }
-                );
+    private void startTournament(int start) {
+        stopTournament();
+        tournament = new Tournament(DistanceTable.getInstance(), start,
+                Tournament.spreadSkills(OPPONENT_COUNT, 0.6, 0.95), OPPONENT_MOVE_INTERVAL,
+                Math.min(OPPONENT_COUNT, Runtime.getRuntime().availableProcessors()), System.nanoTime());
+        shownProgress = new Tournament.Progress[OPPONENT_COUNT];
+        opponentsBox.getChildren().clear();
+        for (var i = 0; i < OPPONENT_COUNT; i++) {
+            opponentsBox.getChildren().add(new Label());
+        }
+        tournament.start();
+        opponentsTimer.start();
+    }
+
+    private void stopTournament() {
+        if (tournament != null) {
+            opponentsTimer.stop();
+            tournament.close();
+            tournament = null;
+        }
+    }
+
+    private void showOpponents() {
+        for (var i = 0; i < tournament.getOpponentCount(); i++) {
+            var progress = tournament.getProgress(i);
+            if (progress == shownProgress[i]) {
+                continue;
+            }
+            shownProgress[i] = progress;
+            var name = String.format("Bot %d (%.0f%%)", i + 1, tournament.getSkill(i) * 100);
+            String text;
+            if (progress.isSolved()) {
+                text = String.format("%s: solved in %d steps", name, progress.steps());
+            } else if (progress.isFinished()) {
+                text = String.format("%s: gave up", name);
+            } else {
+                text = String.format("%s: %d to go, %d steps", name, progress.distance(), progress.steps());
             }
+            ((Label) opponentsBox.getChildren().get(i)).setText(text);
+        }
+        if (tournament.isFinished()) {
+            opponentsTimer.stop();
+        }
+    }
+
+    private void playSolutionMove() {
+        if (!solution.hasNext()) {
+            stopSolution();
+            return;
+        }
+        var direction = solution.next();
+        var row = gameState.getEmptyRow() - direction.getRowChange();
+        var col = gameState.getEmptyCol() - direction.getColChange();
+        gameState.rollToEmptySpace(row, col);
+    }
+
+    private void stopSolution() {
+        if (solution != null) {
+            solutionTimer.stop();
+            solution = null;
         }
-        gameState.solvedProperty().addListener(this::handleSolved);
     }
 
     @FXML
     private void handleClickOnCube(MouseEvent mouseEvent) {
         var row = GridPane.getRowIndex((Node) mouseEvent.getSource());
         var col = GridPane.getColumnIndex((Node) mouseEvent.getSource());
-        Logger.debug("Cube ({}, {}) is clicked", row, col);
-        if (gameState.canRollToEmptySpace(row, col)) {
-            Logger.debug("Rolling the cube");
+        if (Logger.isDebugEnabled()) {
+            Logger.debug("Cube ({}, {}) is clicked", row, col);
+        }
+        if (solutionShown) {
+            Logger.debug("The solution is being shown");
+        } else if (gameState.canRollToEmptySpace(row, col)) {
             steps.set(steps.get() + 1);
             gameState.rollToEmptySpace(row, col);
-            Logger.debug("New state:\n{}", gameState);
+            movesCounter.increment();
+            if (Logger.isDebugEnabled()) {
+                Logger.debug("New state:\n{}", gameState);
+            }
         } else {
             Logger.debug("Invalid move");
         }
     }
 
     private void handleSolved(ObservableValue<? extends Boolean> observableValue, boolean oldValue, boolean newValue) {
-        if (newValue) {
+        if (newValue && solutionShown) {
+            Logger.info("The solution has been shown to player {}", playerName);
+            messageLabel.setText("This is how it is solved");
+            resetButton.setDisable(true);
+            giveUpFinishButton.setText("Finish");
+        } else if (newValue) {
             Logger.info("Player {} has solved the game in {} steps", playerName, steps.get());
+            solvedCounter.increment();
             stopwatch.stop();
-            messageLabel.setText(String.format("Congratulations, %s!", playerName));
+            if (tournament != null) {
+                var place = 1;
+                for (var i = 0; i < tournament.getOpponentCount(); i++) {
+                    if (tournament.getProgress(i).isSolved()) {
+                        place++;
+                    }
+                }
+                messageLabel.setText(String.format("Congratulations, %s! You finished %d. of %d", playerName, place,
+                        tournament.getOpponentCount() + 1));
+            } else {
+                messageLabel.setText(String.format("Congratulations, %s!", playerName));
+            }
             resetButton.setDisable(true);
+            solutionButton.setDisable(true);
             giveUpFinishButton.setText("Finish");
         }
     }
 
+    @FXML
+    private void handleSolutionButton(ActionEvent actionEvent) {
+        Logger.debug("{} is pressed", ((Button) actionEvent.getSource()).getText());
+        Logger.info("Showing the solution");
+        stopwatch.stop();
+        stopTournament();
+        solutionShown = true;
+        solutionButton.setDisable(true);
+        solution = Solver.getInstance().solutionIterator(gameState);
+        lastSolutionMove = System.nanoTime() - SOLUTION_MOVE_INTERVAL.toNanos();
+        solutionTimer.start();
+    }
+
     @FXML
     private void handleResetButton(ActionEvent actionEvent)  {
         Logger.debug("{} is pressed", ((Button) actionEvent.getSource()).getText());
@@ -166,17 +337,21 @@ public class GameController {
             stopwatch.stop();
             Logger.info("The game has been given up");
         }
+        stopSolution();
+        stopTournament();
         Logger.debug("Saving result");
-        gameResultDao.persist(createGameResult());
+        // the high scores are shown at once, the rank is filled in when the result is saved
+        var saved = resultJournal.append(createGameResult());
         Stage stage = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
         ControllerHelper.loadAndShowFXML(fxmlLoader, "/fxml/highscores.fxml", stage);
+        fxmlLoader.<HighScoreController>getController().setResult(saved);
     }
 
     private GameResult createGameResult() {
         return GameResult.builder()
                 .player(playerName)
-                .solved(gameState.isSolved())
-                .duration(Duration.between(startTime, Instant.now()))
+                .solved(gameState.isSolved() && !solutionShown)
+                .duration(stopwatch.getElapsed())
                 .steps(steps.get())
                 .build();
     }
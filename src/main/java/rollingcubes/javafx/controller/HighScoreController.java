@@ -6,7 +6,11 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -14,10 +18,10 @@ import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.control.Button;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 
 import javax.inject.Inject;
@@ -28,43 +32,63 @@ import org.tinylog.Logger;
 
 import rollingcubes.results.GameResult;
 import rollingcubes.results.GameResultDao;
+import rollingcubes.results.GameResultSummary;
+import rollingcubes.results.Leaderboard;
+import rollingcubes.results.PlayerStatistics;
+import rollingcubes.results.PlayerStatisticsDao;
 import util.javafx.ControllerHelper;
 
 public class HighScoreController {
 
+    private static final int HIGH_SCORE_COUNT = 10;
+
     @Inject
     private FXMLLoader fxmlLoader;
 
     @Inject
     private GameResultDao gameResultDao;
 
+    @Inject
+    private Leaderboard leaderboard;
+
+    @Inject
+    private PlayerStatisticsDao playerStatisticsDao;
+
+    @FXML
+    private Label rankLabel;
+
+    @FXML
+    private Label statisticsLabel;
+
     @FXML
-    private TableView<GameResult> highScoreTable;
+    private TableView<GameResultSummary> highScoreTable;
 
     @FXML
-    private TableColumn<GameResult, String> player;
+    private TableColumn<GameResultSummary, String> player;
 
     @FXML
-    private TableColumn<GameResult, Integer> steps;
+    private TableColumn<GameResultSummary, Integer> steps;
 
     @FXML
-    private TableColumn<GameResult, Duration> duration;
+    private TableColumn<GameResultSummary, Duration> duration;
 
     @FXML
-    private TableColumn<GameResult, ZonedDateTime> created;
+    private TableColumn<GameResultSummary, ZonedDateTime> created;
+
+    private final ObservableList<GameResultSummary> highScores = FXCollections.observableArrayList();
 
     @FXML
     private void initialize() {
         Logger.debug("Loading high scores...");
-        List<GameResult> highScoreList = gameResultDao.findBest(10);
+        List<GameResultSummary> highScoreList = gameResultDao.findBestSummaries(HIGH_SCORE_COUNT);
 
-        player.setCellValueFactory(new PropertyValueFactory<>("player"));
-        steps.setCellValueFactory(new PropertyValueFactory<>("steps"));
-        duration.setCellValueFactory(new PropertyValueFactory<>("duration"));
-        created.setCellValueFactory(new PropertyValueFactory<>("created"));
+        player.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().player()));
+        steps.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().steps()));
+        duration.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().duration()));
+        created.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().created()));
 
         duration.setCellFactory(column -> {
-            TableCell<GameResult, Duration> cell = new TableCell<GameResult, Duration>() {
+            TableCell<GameResultSummary, Duration> cell = new TableCell<GameResultSummary, Duration>() {
                 @Override
                 protected void updateItem(Duration item, boolean empty) {
                     super.updateItem(item, empty);
@@ -79,7 +103,7 @@ public class HighScoreController {
         });
 
         created.setCellFactory(column -> {
-            TableCell<GameResult, ZonedDateTime> cell = new TableCell<GameResult, ZonedDateTime>() {
+            TableCell<GameResultSummary, ZonedDateTime> cell = new TableCell<GameResultSummary, ZonedDateTime>() {
                 private DateTimeFormatter formatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.LONG);
                 @Override
                 protected void updateItem(ZonedDateTime item, boolean empty) {
@@ -94,10 +118,49 @@ public class HighScoreController {
             return cell;
         });
 
-        ObservableList<GameResult> observableResult = FXCollections.observableArrayList();
-        observableResult.addAll(highScoreList);
+        highScores.setAll(highScoreList);
+
+        highScoreTable.setItems(highScores);
+    }
+
+    /**
+     * Shows the rank of the result of the game just finished and the
+     * statistics of its player, and reloads the high scores, once the result
+     * has been saved. They are read in the background, thus a slow database
+     * does not block the FX thread.
+     *
+     * @param saved the future completed with the result of the game when it
+     *              has been saved
+     */
+    public void setResult(CompletionStage<GameResult> saved) {
+        rankLabel.setText("Saving your result...");
+        saved.thenApplyAsync(result -> new SavedResult(leaderboard.rank(result), leaderboard.size(),
+                        playerStatisticsDao.findReadOnly(result.getPlayer()),
+                        gameResultDao.findBestSummaries(HIGH_SCORE_COUNT)))
+                .thenAcceptAsync(this::showResult, Platform::runLater)
+                .exceptionally(e -> {
+                    Logger.error(e, "Failed to show the rank of the result");
+                    Platform.runLater(() -> rankLabel.setText("Failed to save your result!"));
+                    return null;
+                });
+    }
+
+    /**
+     * The rank of a saved result, the statistics of its player and the high
+     * scores including it.
+     */
+    private record SavedResult(int rank, int size, Optional<PlayerStatistics> statistics,
+                               List<GameResultSummary> highScores) {
+    }
 
-        highScoreTable.setItems(observableResult);
+    private void showResult(SavedResult saved) {
+        highScores.setAll(saved.highScores());
+        rankLabel.setText(saved.rank() > 0 ? String.format("Your rank: %d of %d", saved.rank(), saved.size()) : "");
+        saved.statistics().ifPresent(statistics -> statisticsLabel.setText(String.format(
+                "Games: %d (%.0f%% solved)%nAverage steps: %.1f, best: %s", statistics.getGames(),
+                statistics.getSolveRate() * 100, statistics.getAverageSteps(),
+                statistics.getBestDuration() == null ? "-"
+                        : DurationFormatUtils.formatDuration(statistics.getBestDuration().toMillis(), "H:mm:ss"))));
     }
 
     public void handleRestartButton(ActionEvent actionEvent) throws IOException {
@@ -1,11 +1,17 @@
 package rollingcubes.javafx.controller;
 
+import java.util.concurrent.CompletionStage;
+
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
@@ -15,6 +21,8 @@ import java.io.IOException;
 
 import org.tinylog.Logger;
 
+import rollingcubes.solver.Difficulty;
+
 public class OpeningController {
 
     @Inject
@@ -23,9 +31,41 @@ public class OpeningController {
     @FXML
     private TextField playerNameTextField;
 
+    @FXML
+    private ChoiceBox<Difficulty> difficultyChoiceBox;
+
+    @FXML
+    private CheckBox tournamentCheckBox;
+
     @FXML
     private Label errorLabel;
 
+    @FXML
+    private Button startButton;
+
+    @FXML
+    private void initialize() {
+        difficultyChoiceBox.getItems().setAll(Difficulty.values());
+        difficultyChoiceBox.setValue(Difficulty.EASY);
+    }
+
+    /**
+     * Disables starting a game until the start positions have been computed,
+     * so that the game scene does not wait for them on the FX thread.
+     *
+     * @param warmUp the computation of the start positions
+     */
+    public void setWarmUp(CompletionStage<?> warmUp) {
+        startButton.setDisable(true);
+        warmUp.whenComplete((result, e) -> Platform.runLater(() -> {
+            if (e != null) {
+                errorLabel.setText("Failed to prepare the game!");
+            } else {
+                startButton.setDisable(false);
+            }
+        }));
+    }
+
     public void startAction(ActionEvent actionEvent) throws IOException {
         if (playerNameTextField.getText().isEmpty()) {
             errorLabel.setText("Please enter your name!");
@@ -33,6 +73,8 @@ public class OpeningController {
             fxmlLoader.setLocation(getClass().getResource("/fxml/game.fxml"));
             Parent root = fxmlLoader.load();
             fxmlLoader.<GameController>getController().setPlayerName(playerNameTextField.getText());
+            fxmlLoader.<GameController>getController().setDifficulty(difficultyChoiceBox.getValue());
+            fxmlLoader.<GameController>getController().setTournament(tournamentCheckBox.isSelected());
             Stage stage = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
             stage.setScene(new Scene(root));
             stage.show();
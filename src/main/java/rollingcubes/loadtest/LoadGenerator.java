@@ -0,0 +1,252 @@
+package rollingcubes.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import com.google.inject.Guice;
+
+import org.tinylog.Logger;
+
+import rollingcubes.player.OptimalPlayer;
+import rollingcubes.player.Player;
+import rollingcubes.player.RandomPlayer;
+import rollingcubes.results.GameResult;
+import rollingcubes.results.GameResultDao;
+import rollingcubes.solver.DistanceTable;
+import rollingcubes.state.PackedState;
+import rollingcubes.state.RollingCubesState;
+import util.cli.Options;
+import util.guice.PersistenceModule;
+import util.metrics.LatencyHistogram;
+import util.metrics.Metrics;
+
+/**
+ * Command line tool that simulates concurrent players and submits their
+ * results through {@link GameResultDao#persist(Object)}. Players make their
+ * moves with a {@link Player} strategy until they solve the puzzle or reach
+ * the maximum number of steps. The tool reports the throughput, the persist latency percentiles and the
+ * growth of the database.
+ *
+ * <p>Options are given in {@code --name=value} form:</p>
+ * <ul>
+ *     <li>{@code --players} the number of simulated players (default 1000)</li>
+ *     <li>{@code --games} the number of games played by each player
+ *     (default 10)</li>
+ *     <li>{@code --threads} the number of worker threads (default 64)</li>
+ *     <li>{@code --max-steps} the maximum number of steps in a game
+ *     (default 200)</li>
+ *     <li>{@code --strategy} the strategy of the players, {@code random}
+ *     makes random moves, {@code optimal} follows a shortest solution found
+ *     with the {@link DistanceTable} (default {@code random})</li>
+ *     <li>{@code --url} the JDBC URL of the database (default is an
+ *     in-memory H2 database)</li>
+ * </ul>
+ */
+public class LoadGenerator {
+
+    private static final String DEFAULT_URL = "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;MODE=LEGACY";
+
+    private final GameResultDao gameResultDao;
+    private final int players;
+    private final int games;
+    private final int threads;
+    private final int maxSteps;
+    private final IntFunction<Player> strategy;
+
+    private final LatencyHistogram persistLatency = new LatencyHistogram();
+    private final AtomicInteger persistCount = new AtomicInteger();
+    private final AtomicInteger solvedCount = new AtomicInteger();
+
+    /**
+     * Creates a {@code LoadGenerator} object, whose players make random
+     * moves.
+     *
+     * @param gameResultDao the DAO used to persist the results
+     * @param players the number of simulated players
+     * @param games the number of games played by each player
+     * @param threads the number of worker threads
+     * @param maxSteps the maximum number of steps in a game
+     */
+    public LoadGenerator(GameResultDao gameResultDao, int players, int games, int threads, int maxSteps) {
+        this(gameResultDao, players, games, threads, maxSteps, i -> new RandomPlayer(new SplittableRandom()));
+    }
+
+    /**
+     * Creates a {@code LoadGenerator} object.
+     *
+     * @param gameResultDao the DAO used to persist the results
+     * @param players the number of simulated players
+     * @param games the number of games played by each player
+     * @param threads the number of worker threads
+     * @param maxSteps the maximum number of steps in a game
+     * @param strategy the function that creates the computer player of the
+     *                 simulated player with each index
+     */
+    public LoadGenerator(GameResultDao gameResultDao, int players, int games, int threads, int maxSteps,
+                         IntFunction<Player> strategy) {
+        this.gameResultDao = gameResultDao;
+        this.players = players;
+        this.games = games;
+        this.threads = threads;
+        this.maxSteps = maxSteps;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Runs the simulation and waits for all players to finish.
+     *
+     * @return the wall-clock time of the simulation
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Duration run() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        var start = System.nanoTime();
+        for (var i = 0; i < players; i++) {
+            var index = i;
+            executor.execute(() -> play("bot-" + index, strategy.apply(index)));
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private void play(String player, Player computer) {
+        var initial = PackedState.pack(new RollingCubesState());
+        for (var game = 0; game < games; game++) {
+            computer.reset();
+            var state = initial;
+            var start = System.nanoTime();
+            var steps = 0;
+            while (!PackedState.isSolved(state) && steps < maxSteps) {
+                var direction = computer.nextMove(state);
+                if (direction == null) {
+                    break;
+                }
+                state = PackedState.move(state, direction);
+                steps++;
+            }
+            var result = GameResult.builder()
+                    .player(player)
+                    .solved(PackedState.isSolved(state))
+                    .steps(steps)
+                    .duration(Duration.ofNanos(System.nanoTime() - start))
+                    .build();
+            persist(result);
+        }
+    }
+
+    private void persist(GameResult result) {
+        var start = System.nanoTime();
+        try {
+            gameResultDao.persist(result);
+        } catch (RuntimeException e) {
+            Logger.error(e, "Failed to persist result of {}", result.getPlayer());
+            return;
+        }
+        persistLatency.recordSince(start);
+        persistCount.incrementAndGet();
+        if (result.isSolved()) {
+            solvedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * {@return the number of results persisted successfully}
+     */
+    public int getPersistCount() {
+        return persistCount.get();
+    }
+
+    /**
+     * {@return the number of solved games among the results persisted}
+     */
+    public int getSolvedCount() {
+        return solvedCount.get();
+    }
+
+    /**
+     * {@return the persist latency at the percentile specified}
+     *
+     * @param percentile a value between 0 and 100
+     */
+    public Duration getPersistLatency(double percentile) {
+        return Duration.ofNanos(persistLatency.getValueAtPercentile(percentile));
+    }
+
+    /**
+     * {@return the size of the H2 database file that belongs to the JDBC URL
+     * specified, or -1 if the URL does not denote a H2 database file}
+     *
+     * @param url a JDBC URL
+     */
+    static long databaseFileSize(String url) {
+        if (!url.startsWith("jdbc:h2:") || url.startsWith("jdbc:h2:mem:") || url.startsWith("jdbc:h2:tcp:")) {
+            return -1;
+        }
+        var name = url.substring("jdbc:h2:".length()).split(";", 2)[0];
+        if (name.startsWith("file:")) {
+            name = name.substring("file:".length());
+        }
+        if (name.startsWith("~")) {
+            name = System.getProperty("user.home") + name.substring(1);
+        }
+        try {
+            return Files.size(Path.of(name + ".mv.db"));
+        } catch (IOException | InvalidPathException e) {
+            return -1;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        var options = Options.parse(args);
+        var players = Integer.parseInt(options.getOrDefault("players", "1000"));
+        var games = Integer.parseInt(options.getOrDefault("games", "10"));
+        var threads = Integer.parseInt(options.getOrDefault("threads", "64"));
+        var maxSteps = Integer.parseInt(options.getOrDefault("max-steps", "200"));
+        var url = options.getOrDefault("url", DEFAULT_URL);
+        IntFunction<Player> strategy = switch (options.getOrDefault("strategy", "random")) {
+            case "random" -> i -> new RandomPlayer(new SplittableRandom());
+            case "optimal" -> {
+                var table = DistanceTable.getInstance();
+                yield i -> new OptimalPlayer(table);
+            }
+            default -> throw new IllegalArgumentException("Invalid strategy: " + options.get("strategy"));
+        };
+
+        var injector = Guice.createInjector(new PersistenceModule("rolling-cubes",
+                Map.of("javax.persistence.jdbc.url", url)));
+        var gameResultDao = injector.getInstance(GameResultDao.class);
+        var rowsBefore = gameResultDao.count();
+        var bytesBefore = databaseFileSize(url);
+
+        Logger.info("Simulating {} players playing {} games each on {} threads", players, games, threads);
+        var loadGenerator = new LoadGenerator(gameResultDao, players, games, threads, maxSteps, strategy);
+        var elapsed = loadGenerator.run();
+
+        var persisted = loadGenerator.getPersistCount();
+        System.out.printf("Results persisted: %d (%d solved, %d failed)%n", persisted,
+                loadGenerator.getSolvedCount(), players * games - persisted);
+        System.out.printf("Elapsed time: %.3f s%n", elapsed.toNanos() / 1e9);
+        System.out.printf("Throughput: %.1f results/s%n", persisted / (elapsed.toNanos() / 1e9));
+        System.out.printf("Persist latency: p50 = %.3f ms, p99 = %.3f ms%n",
+                loadGenerator.getPersistLatency(50).toNanos() / 1e6,
+                loadGenerator.getPersistLatency(99).toNanos() / 1e6);
+        System.out.printf("Rows: %d -> %d%n", rowsBefore, gameResultDao.count());
+        var bytesAfter = databaseFileSize(url);
+        if (bytesBefore >= 0 && bytesAfter >= 0) {
+            System.out.printf("Database file: %d -> %d bytes (%+d)%n", bytesBefore, bytesAfter, bytesAfter - bytesBefore);
+        }
+        System.out.printf("Metrics: %s%n", Metrics.summary());
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Provides tools for load testing the game result backend.
+ */
+package rollingcubes.loadtest;
@@ -0,0 +1,167 @@
+package rollingcubes.player;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+import util.collections.IntIntHashMap;
+
+/**
+ * Player that plans its moves with a beam search guided by the
+ * {@link OrientationHeuristic}. Each search expands the states of the beam
+ * level by level, keeping the {@code width} states with the lowest estimate
+ * on each level, for at most {@code depth} levels. The player follows the
+ * path to a goal state if one is found, or else to the state with the lowest
+ * estimate, and searches again once the path has been followed. If no
+ * state improves on the estimate of the current state, the player moves to
+ * the best state of the deepest level. The searches avoid the states
+ * reached earlier in the game, thus the player does not go around in
+ * cycles.
+ */
+public class BeamPlayer implements Player {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int width;
+
+    private final int depth;
+
+    private final ArrayDeque<Direction> plan = new ArrayDeque<>();
+
+    /**
+     * The state expected when the next move of the plan is made.
+     */
+    private int expected = PackedState.NO_MOVE;
+
+    /**
+     * The states reached in the current game, that are not visited again
+     * by the searches so that the player does not go around in cycles.
+     */
+    private final IntIntHashMap reached = new IntIntHashMap(1 << 8);
+
+    /**
+     * The states visited by the current search besides the states reached,
+     * cleared by each search.
+     */
+    private final IntIntHashMap visited;
+
+    /**
+     * Creates a {@code BeamPlayer} object.
+     *
+     * @param width the number of states kept on each level of the search
+     * @param depth the number of levels of the search
+     * @throws IllegalArgumentException if {@code width} or {@code depth} is
+     * not positive
+     */
+    public BeamPlayer(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Invalid beam: " + width + "x" + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        visited = new IntIntHashMap((int) Math.min(1 << 20, (long) width * depth * DIRECTIONS.length));
+    }
+
+    @Override
+    public Direction nextMove(int state) {
+        if (plan.isEmpty() || state != expected) {
+            search(state);
+        }
+        var direction = plan.poll();
+        expected = PackedState.move(state, direction);
+        reached.putIfAbsent(expected, 0);
+        return direction;
+    }
+
+    @Override
+    public void reset() {
+        plan.clear();
+        reached.clear();
+        expected = PackedState.NO_MOVE;
+    }
+
+    /**
+     * A level of the search, where the parents are the positions of the
+     * states in the previous level.
+     */
+    private record Level(int[] states, int[] parents, Direction[] directions) {
+    }
+
+    private void search(int start) {
+        plan.clear();
+        var levels = new ArrayList<Level>();
+        levels.add(new Level(new int[]{start}, new int[]{-1}, new Direction[]{null}));
+        reached.putIfAbsent(start, 0);
+        visited.clear();
+        var bestLevel = 0;
+        var bestEstimate = OrientationHeuristic.estimate(start);
+        for (var l = 1; l <= depth; l++) {
+            var beam = levels.get(l - 1).states();
+            var states = new int[beam.length * DIRECTIONS.length];
+            var parents = new int[states.length];
+            var directions = new Direction[states.length];
+            var keys = new long[states.length];
+            var count = 0;
+            for (var i = 0; i < beam.length; i++) {
+                for (var direction : DIRECTIONS) {
+                    var next = PackedState.move(beam[i], direction);
+                    if (next == PackedState.NO_MOVE || reached.containsKey(next) || !visited.putIfAbsent(next, 0)) {
+                        continue;
+                    }
+                    states[count] = next;
+                    parents[count] = i;
+                    directions[count] = direction;
+                    if (PackedState.isSolved(next)) {
+                        levels.add(new Level(states, parents, directions));
+                        follow(levels, l, count);
+                        return;
+                    }
+                    keys[count] = (long) OrientationHeuristic.estimate(next) << 32 | count;
+                    count++;
+                }
+            }
+            if (count == 0) {
+                if (l == 1) {
+                    // all neighbors have been reached, allow revisiting them
+                    reached.clear();
+                    search(start);
+                    return;
+                }
+                break;
+            }
+            Arrays.sort(keys, 0, count);
+            var size = Math.min(width, count);
+            var level = new Level(new int[size], new int[size], new Direction[size]);
+            for (var i = 0; i < size; i++) {
+                var j = (int) keys[i];
+                level.states()[i] = states[j];
+                level.parents()[i] = parents[j];
+                level.directions()[i] = directions[j];
+            }
+            levels.add(level);
+            var estimate = (int) (keys[0] >>> 32);
+            if (estimate < bestEstimate) {
+                bestLevel = l;
+                bestEstimate = estimate;
+            }
+        }
+        // without improvement, move to the deepest level to leave the plateau
+        follow(levels, bestLevel > 0 ? bestLevel : levels.size() - 1, 0);
+    }
+
+    /**
+     * Replaces the plan with the path from the start of the search to a
+     * state of a level.
+     */
+    private void follow(List<Level> levels, int level, int index) {
+        for (var l = level; l > 0; l--) {
+            var current = levels.get(l);
+            plan.addFirst(current.directions()[index]);
+            index = current.parents()[index];
+        }
+    }
+
+}
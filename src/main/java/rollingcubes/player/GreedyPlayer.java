@@ -0,0 +1,59 @@
+package rollingcubes.player;
+
+import java.util.random.RandomGenerator;
+
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+
+/**
+ * Player that makes the move minimizing the {@link OrientationHeuristic},
+ * breaking ties randomly. The player does not undo its previous move, thus
+ * it does not oscillate between two states, but it can still get stuck in
+ * longer cycles.
+ */
+public class GreedyPlayer implements Player {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final RandomGenerator random;
+
+    private int previous = PackedState.NO_MOVE;
+
+    /**
+     * Creates a {@code GreedyPlayer} object.
+     *
+     * @param random the random generator used to break ties
+     */
+    public GreedyPlayer(RandomGenerator random) {
+        this.random = random;
+    }
+
+    @Override
+    public Direction nextMove(int state) {
+        Direction best = null;
+        var bestEstimate = Integer.MAX_VALUE;
+        var ties = 0;
+        for (var direction : DIRECTIONS) {
+            var next = PackedState.move(state, direction);
+            if (next == PackedState.NO_MOVE || next == previous) {
+                continue;
+            }
+            var estimate = OrientationHeuristic.estimate(next);
+            if (estimate < bestEstimate) {
+                best = direction;
+                bestEstimate = estimate;
+                ties = 1;
+            } else if (estimate == bestEstimate && random.nextInt(++ties) == 0) {
+                best = direction;
+            }
+        }
+        previous = state;
+        return best;
+    }
+
+    @Override
+    public void reset() {
+        previous = PackedState.NO_MOVE;
+    }
+
+}
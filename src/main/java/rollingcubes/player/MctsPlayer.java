@@ -0,0 +1,326 @@
+package rollingcubes.player;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+
+/**
+ * Player that chooses its moves with Monte Carlo tree search. For each move,
+ * a search tree is grown from the current state by selecting the most
+ * promising path with the UCT rule, expanding its leaf and estimating the
+ * value of the new node with a random rollout. A rollout is rewarded fully
+ * for reaching a goal state, and partially by the lowest
+ * {@link OrientationHeuristic} estimate it passes.
+ *
+ * <p>The search is root-parallel: each thread grows an independent tree
+ * with its own random generator until the time budget or the number of
+ * iterations is exhausted, then the visit counts of the moves at the roots
+ * are summed, and the most visited move is made. Thus the quality of the
+ * moves grows with the number of threads. The trees are stored in arrays
+ * allocated once, and the rollouts work on packed states, thus the search
+ * does not allocate memory.</p>
+ *
+ * <p>The player avoids the states reached earlier in the game, unless all
+ * moves lead to such states, thus it does not go around in cycles. The
+ * threads of a player are released by {@link #close()}.</p>
+ */
+public class MctsPlayer implements Player, AutoCloseable {
+
+    /**
+     * The exploration constant of the UCT rule.
+     */
+    public static final double EXPLORATION = Math.sqrt(2);
+
+    /**
+     * The maximum number of nodes of a search tree, the leaves of a full
+     * tree are not expanded further.
+     */
+    public static final int MAX_NODES = 1 << 18;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final long budgetNanos;
+
+    private final int maxIterations;
+
+    private final int rolloutDepth;
+
+    private final Tree[] trees;
+
+    private final ExecutorService executor;
+
+    private final Set<Integer> reached = new HashSet<>();
+
+    /**
+     * Creates an {@code MctsPlayer} object.
+     *
+     * @param budget the time spent on searching each move
+     * @param maxIterations the maximum number of iterations of each tree for
+     *                      each move
+     * @param threads the number of trees searched in parallel
+     * @param rolloutDepth the maximum number of moves of a rollout
+     * @param seed the seed of the random generators of the trees
+     * @throws IllegalArgumentException if {@code maxIterations},
+     * {@code threads} or {@code rolloutDepth} is not positive
+     */
+    public MctsPlayer(Duration budget, int maxIterations, int threads, int rolloutDepth, long seed) {
+        if (maxIterations < 1 || threads < 1 || rolloutDepth < 1) {
+            throw new IllegalArgumentException("Invalid search parameters: " + maxIterations + " iterations, "
+                    + threads + " threads, rollout depth " + rolloutDepth);
+        }
+        this.budgetNanos = budget.toNanos();
+        this.maxIterations = maxIterations;
+        this.rolloutDepth = rolloutDepth;
+        var random = new SplittableRandom(seed);
+        trees = new Tree[threads];
+        for (var i = 0; i < threads; i++) {
+            trees[i] = new Tree(random.split());
+        }
+        executor = threads == 1 ? null : Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(runnable, "mcts");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Direction nextMove(int state) {
+        reached.add(state);
+        for (var direction : DIRECTIONS) {
+            var next = PackedState.move(state, direction);
+            if (next != PackedState.NO_MOVE && PackedState.isSolved(next)) {
+                return direction;
+            }
+        }
+        var deadline = System.nanoTime() + budgetNanos;
+        if (executor == null) {
+            trees[0].search(state, deadline);
+        } else {
+            var tasks = new ArrayList<Callable<Void>>(trees.length);
+            for (var tree : trees) {
+                tasks.add(() -> {
+                    tree.search(state, deadline);
+                    return null;
+                });
+            }
+            try {
+                for (var future : executor.invokeAll(tasks)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        var visits = new long[DIRECTIONS.length];
+        Arrays.fill(visits, -1);
+        for (var tree : trees) {
+            tree.addRootVisits(visits);
+        }
+        var best = 0;
+        for (var i = 1; i < visits.length; i++) {
+            if (visits[i] > visits[best]) {
+                best = i;
+            }
+        }
+        reached.add(PackedState.move(state, DIRECTIONS[best]));
+        return DIRECTIONS[best];
+    }
+
+    @Override
+    public void reset() {
+        reached.clear();
+    }
+
+    /**
+     * Stops the threads of the player.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A search tree, whose nodes are stored in parallel arrays. The children
+     * of a node are stored consecutively.
+     */
+    private class Tree {
+
+        private final SplittableRandom random;
+
+        private final int capacity;
+
+        private final int[] states;
+
+        private final int[] parents;
+
+        /**
+         * The position of the first child of each node, or -1 if the node
+         * has not been expanded.
+         */
+        private final int[] firstChildren;
+
+        private final byte[] childCounts;
+
+        private final byte[] directions;
+
+        private final int[] visits;
+
+        private final double[] rewards;
+
+        private final int[] moves = new int[DIRECTIONS.length];
+
+        private int size;
+
+        private Tree(SplittableRandom random) {
+            this.random = random;
+            // each iteration adds at most one level of children
+            capacity = (int) Math.min(MAX_NODES, (maxIterations + 2L) * DIRECTIONS.length);
+            states = new int[capacity];
+            parents = new int[capacity];
+            firstChildren = new int[capacity];
+            childCounts = new byte[capacity];
+            directions = new byte[capacity];
+            visits = new int[capacity];
+            rewards = new double[capacity];
+        }
+
+        private int add(int state, int parent, int direction) {
+            var node = size++;
+            states[node] = state;
+            parents[node] = parent;
+            directions[node] = (byte) direction;
+            firstChildren[node] = -1;
+            childCounts[node] = 0;
+            visits[node] = 0;
+            rewards[node] = 0;
+            return node;
+        }
+
+        private void search(int root, long deadline) {
+            size = 0;
+            add(root, -1, -1);
+            expand(0);
+            for (var iteration = 0; iteration < maxIterations; iteration++) {
+                if (iteration > 0 && (iteration & 0xf) == 0 && System.nanoTime() >= deadline) {
+                    break;
+                }
+                var node = 0;
+                while (childCounts[node] > 0) {
+                    node = select(node);
+                }
+                if (!PackedState.isSolved(states[node]) && visits[node] > 0
+                        && size + DIRECTIONS.length <= capacity) {
+                    expand(node);
+                    if (childCounts[node] > 0) {
+                        node = firstChildren[node] + random.nextInt(childCounts[node]);
+                    }
+                }
+                var reward = rollout(node);
+                for (; node >= 0; node = parents[node]) {
+                    visits[node]++;
+                    rewards[node] += reward;
+                }
+            }
+        }
+
+        /**
+         * Adds the children of a node. The moves back to the parent are
+         * skipped, and at the root the moves to the states reached earlier
+         * in the game, unless all moves lead to such states.
+         */
+        private void expand(int node) {
+            var state = states[node];
+            var parentState = node == 0 ? PackedState.NO_MOVE : states[parents[node]];
+            firstChildren[node] = size;
+            for (var i = 0; i < DIRECTIONS.length; i++) {
+                var next = PackedState.move(state, DIRECTIONS[i]);
+                if (next != PackedState.NO_MOVE && next != parentState && (node != 0 || !reached.contains(next))) {
+                    add(next, node, i);
+                }
+            }
+            if (node == 0 && size == 1) {
+                for (var i = 0; i < DIRECTIONS.length; i++) {
+                    var next = PackedState.move(state, DIRECTIONS[i]);
+                    if (next != PackedState.NO_MOVE) {
+                        add(next, node, i);
+                    }
+                }
+            }
+            childCounts[node] = (byte) (size - firstChildren[node]);
+        }
+
+        /**
+         * {@return the child of a node with the highest UCT value, where
+         * unvisited children come first}
+         */
+        private int select(int node) {
+            var first = firstChildren[node];
+            var logVisits = Math.log(visits[node]);
+            var best = first;
+            var bestValue = Double.NEGATIVE_INFINITY;
+            for (var child = first; child < first + childCounts[node]; child++) {
+                if (visits[child] == 0) {
+                    return child;
+                }
+                var value = rewards[child] / visits[child] + EXPLORATION * Math.sqrt(logVisits / visits[child]);
+                if (value > bestValue) {
+                    best = child;
+                    bestValue = value;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * {@return the reward of a random rollout from a node} The rollout
+         * does not undo its previous move.
+         */
+        private double rollout(int node) {
+            var state = states[node];
+            var previous = node == 0 ? PackedState.NO_MOVE : states[parents[node]];
+            var lowest = OrientationHeuristic.estimate(state);
+            for (var depth = 0; depth < rolloutDepth; depth++) {
+                if (PackedState.isSolved(state)) {
+                    return 1 - 0.5 * depth / rolloutDepth;
+                }
+                var count = 0;
+                for (var direction : DIRECTIONS) {
+                    var next = PackedState.move(state, direction);
+                    if (next != PackedState.NO_MOVE && next != previous) {
+                        moves[count++] = next;
+                    }
+                }
+                previous = state;
+                state = moves[random.nextInt(count)];
+                lowest = Math.min(lowest, OrientationHeuristic.estimate(state));
+            }
+            if (PackedState.isSolved(state)) {
+                return 0.5;
+            }
+            return 0.5 * (1 - (double) lowest / OrientationHeuristic.MAX_ESTIMATE);
+        }
+
+        private void addRootVisits(long[] sums) {
+            for (var child = firstChildren[0]; child < firstChildren[0] + childCounts[0]; child++) {
+                sums[directions[child]] = Math.max(sums[directions[child]], 0) + visits[child];
+            }
+        }
+
+    }
+
+}
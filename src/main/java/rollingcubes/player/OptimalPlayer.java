@@ -0,0 +1,45 @@
+package rollingcubes.player;
+
+import rollingcubes.solver.DistanceTable;
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+
+/**
+ * Player that follows a shortest solution, found with a
+ * {@link DistanceTable}.
+ */
+public class OptimalPlayer implements Player {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final DistanceTable table;
+
+    /**
+     * Creates an {@code OptimalPlayer} object.
+     *
+     * @param table the distance table of the states
+     */
+    public OptimalPlayer(DistanceTable table) {
+        this.table = table;
+    }
+
+    /**
+     * {@inheritDoc} The player gives up on unsolvable states.
+     */
+    @Override
+    public Direction nextMove(int state) {
+        var distance = table.getDistance(state);
+        if (distance <= 0) {
+            return null;
+        }
+        for (var direction : DIRECTIONS) {
+            var next = PackedState.move(state, direction);
+            if (next != PackedState.NO_MOVE && table.getDistance(next) == distance - 1) {
+                return direction;
+            }
+        }
+        throw new AssertionError("No move decreases the distance " + distance + " of state\n"
+                + PackedState.toString(state));
+    }
+
+}
@@ -0,0 +1,65 @@
+package rollingcubes.player;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import rollingcubes.state.Cube;
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+
+/**
+ * Estimates the number of moves needed to solve a packed state from the
+ * orientations of its cubes. The estimate is the sum over the cubes of the
+ * number of rolls needed to turn each cube into the goal orientation, that
+ * ignores the positions of the cubes and thus may be far from exact.
+ */
+public final class OrientationHeuristic {
+
+    /**
+     * The number of rolls needed to turn a cube into the goal orientation
+     * indexed by the value of the cube.
+     */
+    private static final int[] ROLLS_TO_GOAL = new int[Cube.values().length];
+
+    /**
+     * The maximum of the estimates over all states.
+     */
+    public static final int MAX_ESTIMATE;
+
+    static {
+        Arrays.fill(ROLLS_TO_GOAL, -1);
+        ROLLS_TO_GOAL[Cube.CUBE6.getValue()] = 0;
+        ROLLS_TO_GOAL[Cube.EMPTY.getValue()] = 0;
+        var queue = new ArrayDeque<Cube>();
+        queue.add(Cube.CUBE6);
+        while (!queue.isEmpty()) {
+            var cube = queue.poll();
+            for (var direction : Direction.values()) {
+                var previous = cube.rollBack(direction);
+                if (ROLLS_TO_GOAL[previous.getValue()] < 0) {
+                    ROLLS_TO_GOAL[previous.getValue()] = ROLLS_TO_GOAL[cube.getValue()] + 1;
+                    queue.add(previous);
+                }
+            }
+        }
+        MAX_ESTIMATE = (PackedState.CELL_COUNT - 1) * Arrays.stream(ROLLS_TO_GOAL).max().orElseThrow();
+    }
+
+    private OrientationHeuristic() {
+    }
+
+    /**
+     * {@return the estimated number of moves needed to solve a packed state}
+     * The estimate is 0 exactly for the goal states.
+     *
+     * @param state a packed state
+     */
+    public static int estimate(int state) {
+        var sum = 0;
+        for (var i = 0; i < PackedState.CELL_COUNT; i++) {
+            sum += ROLLS_TO_GOAL[PackedState.getValue(state, i)];
+        }
+        return sum;
+    }
+
+}
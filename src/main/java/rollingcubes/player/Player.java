@@ -0,0 +1,27 @@
+package rollingcubes.player;
+
+import rollingcubes.state.Direction;
+
+/**
+ * Computer player of the puzzle, that chooses its moves on packed states
+ * (see {@link rollingcubes.state.PackedState}). Players may keep state
+ * between the moves of a game, thus instances are not thread-safe and each
+ * game should be played by a separate instance or after {@link #reset()}.
+ */
+public interface Player {
+
+    /**
+     * {@return the direction of the next move, or {@code null} if the player
+     * gives up} The direction returned must be a legal move.
+     *
+     * @param state the packed state of the game, that is not solved
+     */
+    Direction nextMove(int state);
+
+    /**
+     * Prepares the player for a new game.
+     */
+    default void reset() {
+    }
+
+}
@@ -0,0 +1,231 @@
+package rollingcubes.player;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import rollingcubes.solver.Difficulty;
+import rollingcubes.solver.DistanceTable;
+import rollingcubes.solver.StartPositionGenerator;
+import rollingcubes.state.PackedState;
+import util.cli.Options;
+
+/**
+ * Benchmark that plays the strategies of the computer players on a corpus
+ * of start positions in parallel, and reports the rate of the games solved,
+ * the number of steps of the games solved relative to their shortest
+ * solutions, and the throughput of the moves. The worker threads of a
+ * benchmark are released by {@link #close()}.
+ *
+ * <p>Options of the command line tool are given in {@code --name=value}
+ * form:</p>
+ * <ul>
+ *     <li>{@code --positions} the number of start positions for each
+ *     difficulty (default 1000)</li>
+ *     <li>{@code --max-steps} the number of moves after which a game is
+ *     given up (default 200)</li>
+ *     <li>{@code --threads} the number of worker threads (default is the
+ *     number of processors)</li>
+ *     <li>{@code --beam-width} and {@code --beam-depth} the parameters of
+ *     the beam search (default 64 and 16)</li>
+ *     <li>{@code --mcts-iterations} the number of iterations of the Monte
+ *     Carlo tree search for each move, the strategy is skipped if 0
+ *     (default 0)</li>
+ *     <li>{@code --seed} the seed of the start positions and the players
+ *     (default 1)</li>
+ * </ul>
+ */
+public class PlayerBenchmark implements AutoCloseable {
+
+    /**
+     * Represents the outcome of playing a strategy on a corpus.
+     *
+     * @param games the number of games played
+     * @param solved the number of games solved
+     * @param steps the total number of steps of the games solved
+     * @param optimalSteps the total length of the shortest solutions of the
+     *                     games solved
+     * @param moves the total number of moves of all games
+     * @param elapsed the wall-clock time of playing the games
+     */
+    public record Result(int games, int solved, long steps, long optimalSteps, long moves, Duration elapsed) {
+
+        /**
+         * {@return the ratio of the games solved}
+         */
+        public double solveRate() {
+            return games == 0 ? 0 : (double) solved / games;
+        }
+
+        /**
+         * {@return the ratio of the steps of the games solved and the length
+         * of their shortest solutions}
+         */
+        public double stepRatio() {
+            return optimalSteps == 0 ? 1 : (double) steps / optimalSteps;
+        }
+
+        /**
+         * {@return the number of moves made per second}
+         */
+        public double movesPerSecond() {
+            return moves / Math.max(1e-9, elapsed.toNanos() / 1e9);
+        }
+
+    }
+
+    private final DistanceTable table;
+
+    private final int maxSteps;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a {@code PlayerBenchmark} object.
+     *
+     * @param table the distance table used to find the length of the
+     *              shortest solutions
+     * @param maxSteps the number of moves after which a game is given up
+     * @param threads the number of worker threads
+     */
+    public PlayerBenchmark(DistanceTable table, int maxSteps, int threads) {
+        this.table = table;
+        this.maxSteps = maxSteps;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Plays a strategy on each start position of a corpus in parallel.
+     *
+     * @param players the function that creates a new player for each game
+     *                from the position of the game in the corpus, so that
+     *                the players can be seeded reproducibly
+     * @param corpus the packed start positions
+     * @return the outcome of the games
+     * @throws IllegalStateException if a player makes an illegal move
+     */
+    public Result run(IntFunction<? extends Player> players, int[] corpus) {
+        var solved = new LongAdder();
+        var steps = new LongAdder();
+        var optimalSteps = new LongAdder();
+        var moves = new LongAdder();
+        var start = System.nanoTime();
+        try {
+            pool.submit(() -> IntStream.range(0, corpus.length).parallel().forEach(i -> {
+                var played = play(players.apply(i), corpus[i]);
+                moves.add(Math.abs(played));
+                if (played >= 0) {
+                    solved.increment();
+                    steps.add(played);
+                    optimalSteps.add(table.getDistance(corpus[i]));
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return new Result(corpus.length, solved.intValue(), steps.sum(), optimalSteps.sum(), moves.sum(),
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Plays a game.
+     *
+     * @return the number of moves if the game has been solved, or the
+     * negated number of moves otherwise
+     */
+    private int play(Player player, int state) {
+        var steps = 0;
+        while (!PackedState.isSolved(state)) {
+            if (steps == maxSteps) {
+                return -steps;
+            }
+            var direction = player.nextMove(state);
+            if (direction == null) {
+                return -steps;
+            }
+            var next = PackedState.move(state, direction);
+            if (next == PackedState.NO_MOVE) {
+                throw new IllegalStateException("Illegal move " + direction + " in state\n"
+                        + PackedState.toString(state));
+            }
+            state = next;
+            steps++;
+        }
+        return steps;
+    }
+
+    /**
+     * {@return random start positions with the length of the shortest
+     * solution specified}
+     *
+     * @param count the number of start positions
+     * @param distance the length of the shortest solution
+     * @param seed the seed of the random generator
+     */
+    public static int[] corpus(int count, int distance, long seed) {
+        var random = new SplittableRandom(seed);
+        var generator = StartPositionGenerator.getInstance();
+        return IntStream.range(0, count).map(i -> generator.next(distance, random)).toArray();
+    }
+
+    /**
+     * Plays each strategy on the start positions of each difficulty, and
+     * prints a row of the outcome for each of them. The options are listed
+     * in the description of the class.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        var options = Options.parse(args);
+        var positions = Integer.parseInt(options.getOrDefault("positions", "1000"));
+        var maxSteps = Integer.parseInt(options.getOrDefault("max-steps", "200"));
+        var threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        var beamWidth = Integer.parseInt(options.getOrDefault("beam-width", "64"));
+        var beamDepth = Integer.parseInt(options.getOrDefault("beam-depth", "16"));
+        var mctsIterations = Integer.parseInt(options.getOrDefault("mcts-iterations", "0"));
+        var seed = Long.parseLong(options.getOrDefault("seed", "1"));
+
+        var table = DistanceTable.getInstance();
+        var strategies = new LinkedHashMap<String, IntFunction<Player>>();
+        strategies.put("random", i -> new RandomPlayer(new SplittableRandom(seed + i)));
+        strategies.put("greedy", i -> new GreedyPlayer(new SplittableRandom(seed + i)));
+        strategies.put("beam", i -> new BeamPlayer(beamWidth, beamDepth));
+        if (mctsIterations > 0) {
+            // the games are played in parallel, thus each search uses a single thread
+            strategies.put("mcts", i -> new MctsPlayer(Duration.ofMinutes(1), mctsIterations, 1, 30, seed + i));
+        }
+        strategies.put("optimal", i -> new OptimalPlayer(table));
+        System.out.printf("%-8s %-8s %8s %12s %14s%n", "strategy", "level", "solved", "steps/opt", "moves/s");
+        try (var benchmark = new PlayerBenchmark(table, maxSteps, threads)) {
+            for (var difficulty : Difficulty.values()) {
+                var corpus = corpus(positions, difficulty.getDistance(), seed + difficulty.ordinal());
+                for (var strategy : strategies.entrySet()) {
+                    var result = benchmark.run(strategy.getValue(), corpus);
+                    System.out.printf("%-8s %-8s %7.1f%% %12.2f %14.0f%n", strategy.getKey(), difficulty,
+                            result.solveRate() * 100, result.stepRatio(), result.movesPerSecond());
+                }
+            }
+        }
+    }
+
+}
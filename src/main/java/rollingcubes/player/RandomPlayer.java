@@ -0,0 +1,39 @@
+package rollingcubes.player;
+
+import java.util.random.RandomGenerator;
+
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+
+/**
+ * Player that makes random legal moves, the baseline of the strategies.
+ */
+public class RandomPlayer implements Player {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final RandomGenerator random;
+
+    private final Direction[] moves = new Direction[DIRECTIONS.length];
+
+    /**
+     * Creates a {@code RandomPlayer} object.
+     *
+     * @param random the random generator used to choose the moves
+     */
+    public RandomPlayer(RandomGenerator random) {
+        this.random = random;
+    }
+
+    @Override
+    public Direction nextMove(int state) {
+        var count = 0;
+        for (var direction : DIRECTIONS) {
+            if (PackedState.move(state, direction) != PackedState.NO_MOVE) {
+                moves[count++] = direction;
+            }
+        }
+        return moves[random.nextInt(count)];
+    }
+
+}
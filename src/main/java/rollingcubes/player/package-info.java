@@ -0,0 +1,5 @@
+/**
+ * Provides computer players of the puzzle with different strategies, and a
+ * benchmark that compares them.
+ */
+package rollingcubes.player;
@@ -1,19 +1,63 @@
 package rollingcubes.results;
 
+import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import util.jpa.GenericJpaDao;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * DAO class for the {@link GameResult} entity.
  */
 public class GameResultDao extends GenericJpaDao<GameResult> {
 
+    private Set<GameResultListener> listeners = Set.of();
+
+    private PlayerStatisticsDao playerStatisticsDao;
+
     public GameResultDao() {
         super(GameResult.class);
     }
 
+    /**
+     * Sets the DAO used to update the statistics of the players.
+     *
+     * @param playerStatisticsDao the DAO of the statistics of the players
+     */
+    @Inject
+    public void setPlayerStatisticsDao(PlayerStatisticsDao playerStatisticsDao) {
+        this.playerStatisticsDao = playerStatisticsDao;
+    }
+
+    /**
+     * Sets the listeners to be notified about the changes of the results.
+     * The listeners are bound with a
+     * {@link com.google.inject.multibindings.Multibinder}, if there are any.
+     *
+     * @param listeners the listeners
+     */
+    @Inject(optional = true)
+    public void setListeners(Set<GameResultListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    /**
+     * Updates the statistics of the player of a result persisted in the same
+     * transaction, and notifies the listeners once the transaction has been
+     * committed.
+     *
+     * @param result the result persisted
+     */
+    @Override
+    protected void afterPersist(GameResult result) {
+        playerStatisticsDao.add(result);
+        if (!listeners.isEmpty()) {
+            afterCommit(() -> listeners.forEach(listener -> listener.resultPersisted(result)));
+        }
+    }
+
     /**
      * {@return the list of {@code n} best results with respect to the time
      * spent for solving the puzzle}
@@ -22,9 +66,139 @@ public class GameResultDao extends GenericJpaDao<GameResult> {
      */
     @Transactional
     public List<GameResult> findBest(int n) {
-        return entityManager.createQuery("SELECT r FROM GameResult r WHERE r.solved = true ORDER BY r.duration ASC, r.created DESC", GameResult.class)
+        return getEntityManager().createQuery("SELECT r FROM GameResult r WHERE r.solved = true ORDER BY r.duration ASC, r.created DESC", GameResult.class)
+                .setMaxResults(n)
+                .getResultList();
+    }
+
+    /**
+     * {@return the summaries of the {@code n} best results in the order of
+     * {@link #findBest(int)}} The summaries are projected by the query, thus
+     * no entities are created, snapshotted or dirty checked.
+     *
+     * @param n the maximum number of results to be returned
+     */
+    @Transactional
+    public List<GameResultSummary> findBestSummaries(int n) {
+        return getEntityManager().createQuery("SELECT NEW rollingcubes.results.GameResultSummary(r.player, r.steps, r.duration, r.created) FROM GameResult r WHERE r.solved = true ORDER BY r.duration ASC, r.created DESC", GameResultSummary.class)
+                .setHint("org.hibernate.readOnly", true)
+                .setHint("org.hibernate.fetchSize", n)
                 .setMaxResults(n)
                 .getResultList();
     }
 
+    /**
+     * {@return whether the database contains a result of the same player
+     * created at the same time as the result specified}
+     *
+     * @param result a result
+     */
+    @Transactional
+    public boolean contains(GameResult result) {
+        return getEntityManager().createQuery("SELECT COUNT(r) FROM GameResult r WHERE r.player = :player AND r.created = :created", Long.class)
+                .setParameter("player", result.getPlayer())
+                .setParameter("created", result.getCreated())
+                .getSingleResult() > 0;
+    }
+
+    /**
+     * {@return the results with ids greater than the id specified in
+     * ascending order of their ids} The results returned are not managed by
+     * the persistence context. Successive invocations page through the
+     * results without an offset, thus each page takes the same time.
+     *
+     * @param id the id after which the results are returned
+     * @param n the maximum number of results to be returned
+     */
+    @Transactional
+    public List<GameResult> findAfter(long id, int n) {
+        return getEntityManager().createQuery("SELECT NEW rollingcubes.results.GameResult(r.id, r.player, r.solved, r.steps, r.duration, r.created) FROM GameResult r WHERE r.id > :id ORDER BY r.id", GameResult.class)
+                .setParameter("id", id)
+                .setMaxResults(n)
+                .getResultList();
+    }
+
+    /**
+     * Removes unsolved results, and notifies the listeners once the
+     * transaction has been committed. Invoke repeatedly until it returns 0
+     * to remove all unsolved results in transactions of bounded size.
+     *
+     * @param n the maximum number of results to be removed
+     * @return the number of results removed
+     */
+    @Transactional
+    public int removeUnsolved(int n) {
+        return removeAll(getEntityManager().createQuery("SELECT r.id FROM GameResult r WHERE r.solved = false ORDER BY r.id", Long.class)
+                .setMaxResults(n)
+                .getResultList());
+    }
+
+    /**
+     * {@return the players having more solved results than the number
+     * specified in ascending order of their names} Successive invocations
+     * page through the players by passing the last player returned.
+     *
+     * @param keep the number of solved results
+     * @param after the name after which the players are returned, or the
+     *              empty string to start from the first player
+     * @param n the maximum number of players to be returned
+     */
+    @Transactional
+    public List<String> findPlayersWithMoreSolved(int keep, String after, int n) {
+        return getEntityManager().createQuery("SELECT r.player FROM GameResult r WHERE r.solved = true AND r.player > :after GROUP BY r.player HAVING COUNT(r) > :keep ORDER BY r.player", String.class)
+                .setParameter("after", after)
+                .setParameter("keep", (long) keep)
+                .setMaxResults(n)
+                .getResultList();
+    }
+
+    /**
+     * Removes the solved results of a player except for the best ones in the
+     * order of {@link #findBest(int)}, and notifies the listeners once the
+     * transaction has been committed. Invoke repeatedly until it returns 0
+     * to remove all such results in transactions of bounded size.
+     *
+     * @param player the name of the player
+     * @param keep the number of the best results to be kept
+     * @param n the maximum number of results to be removed
+     * @return the number of results removed
+     */
+    @Transactional
+    public int removeSuperseded(String player, int keep, int n) {
+        return removeAll(getEntityManager().createQuery("SELECT r.id FROM GameResult r WHERE r.player = :player AND r.solved = true ORDER BY r.duration ASC, r.created DESC, r.id ASC", Long.class)
+                .setParameter("player", player)
+                .setFirstResult(keep)
+                .setMaxResults(n)
+                .getResultList());
+    }
+
+    private int removeAll(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        var removed = getEntityManager().createQuery("DELETE FROM GameResult r WHERE r.id IN :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        if (!listeners.isEmpty()) {
+            afterCommit(() -> listeners.forEach(listener -> listener.resultsRemoved(ids)));
+        }
+        return removed;
+    }
+
+    /**
+     * Streams the solved results from the database to the action specified,
+     * without loading all of them into memory at once. The results passed to
+     * the action are not managed by the persistence context.
+     *
+     * @param action the action to be performed for each solved result
+     */
+    @Transactional
+    public void forEachSolved(Consumer<GameResult> action) {
+        try (var stream = getEntityManager().createQuery("SELECT NEW rollingcubes.results.GameResult(r.id, r.player, r.solved, r.steps, r.duration, r.created) FROM GameResult r WHERE r.solved = true", GameResult.class)
+                .setHint("org.hibernate.fetchSize", 1000)
+                .getResultStream()) {
+            stream.forEach(action);
+        }
+    }
+
 }
@@ -0,0 +1,28 @@
+package rollingcubes.results;
+
+import java.util.List;
+
+/**
+ * Listener notified by {@link GameResultDao} about the changes of the
+ * results stored in the database.
+ */
+public interface GameResultListener {
+
+    /**
+     * Invoked after the transaction that persisted a result has been
+     * committed.
+     *
+     * @param result the result persisted
+     */
+    void resultPersisted(GameResult result);
+
+    /**
+     * Invoked after the transaction that removed results has been
+     * committed.
+     *
+     * @param ids the ids of the results removed
+     */
+    default void resultsRemoved(List<Long> ids) {
+    }
+
+}
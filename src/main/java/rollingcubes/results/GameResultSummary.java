@@ -0,0 +1,17 @@
+package rollingcubes.results;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+/**
+ * Read-only view of the fields of a {@link GameResult} that are displayed
+ * on the high score list. Instances are created directly by queries, thus
+ * they are not tracked by the persistence context.
+ *
+ * @param player the name of the player
+ * @param steps the number of steps made by the player
+ * @param duration the duration of the game
+ * @param created the timestamp when the result was saved
+ */
+public record GameResultSummary(String player, int steps, Duration duration, ZonedDateTime created) {
+}
@@ -0,0 +1,172 @@
+package rollingcubes.results;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Singleton;
+
+import org.tinylog.Logger;
+
+import util.collections.OrderStatisticTree;
+
+/**
+ * In-memory ranking of the solved results, in the order of
+ * {@link GameResultDao#findBest(int)}. The results are kept in an
+ * {@link OrderStatisticTree}, thus both the rank of a result and the results
+ * around a rank are found in {@code O(log n)} time.
+ *
+ * <p>The leaderboard is loaded from the database with
+ * {@link #rebuild(GameResultDao)}, and is kept in sync as a
+ * {@link GameResultListener} of {@link GameResultDao}. A rebuild reads the
+ * results into a new tree without holding the lock of the leaderboard, that
+ * keeps serving the previous content until the new tree is swapped in.
+ * Instances of this class are thread-safe.</p>
+ */
+@Singleton
+public class Leaderboard implements GameResultListener {
+
+    /**
+     * The order of the results, faster first, then the more recent first.
+     */
+    public static final Comparator<GameResult> ORDER = Comparator.comparing(GameResult::getDuration)
+            .thenComparing(GameResult::getCreated, Comparator.reverseOrder())
+            .thenComparing(GameResult::getId);
+
+    private OrderStatisticTree<GameResult> ranking = new OrderStatisticTree<>(ORDER);
+
+    /**
+     * The results in the ranking by their ids.
+     */
+    private Map<Long, GameResult> results = new HashMap<>();
+
+    /**
+     * The results persisted during a rebuild, or {@code null} if no rebuild
+     * is running.
+     */
+    private List<GameResult> persistedDuringRebuild;
+
+    /**
+     * The ids of the results removed during a rebuild, or {@code null} if
+     * no rebuild is running.
+     */
+    private List<Long> removedDuringRebuild;
+
+    /**
+     * Serializes the rebuilds, without blocking the other operations.
+     */
+    private final Object rebuildLock = new Object();
+
+    /**
+     * Replaces the content of the leaderboard with the solved results
+     * stored in the database. The previous content is served until the
+     * rebuild completes, and the results persisted or removed meanwhile are
+     * applied to the new content before it replaces the previous one.
+     *
+     * @param gameResultDao the DAO used to read the results
+     */
+    public void rebuild(GameResultDao gameResultDao) {
+        synchronized (rebuildLock) {
+            var start = System.nanoTime();
+            synchronized (this) {
+                persistedDuringRebuild = new ArrayList<>();
+                removedDuringRebuild = new ArrayList<>();
+            }
+            try {
+                var newRanking = new OrderStatisticTree<GameResult>(ORDER);
+                var newResults = new HashMap<Long, GameResult>();
+                gameResultDao.forEachSolved(result -> add(newRanking, newResults, result));
+                synchronized (this) {
+                    // an id is never persisted again after its removal
+                    for (var result : persistedDuringRebuild) {
+                        add(newRanking, newResults, result);
+                    }
+                    remove(newRanking, newResults, removedDuringRebuild);
+                    ranking = newRanking;
+                    results = newResults;
+                }
+            } finally {
+                synchronized (this) {
+                    persistedDuringRebuild = null;
+                    removedDuringRebuild = null;
+                }
+            }
+            Logger.debug("Leaderboard of {} results loaded in {} ms", size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static void add(OrderStatisticTree<GameResult> ranking, Map<Long, GameResult> results,
+                            GameResult result) {
+        if (result.isSolved() && results.putIfAbsent(result.getId(), result) == null) {
+            ranking.add(result);
+        }
+    }
+
+    private static void remove(OrderStatisticTree<GameResult> ranking, Map<Long, GameResult> results,
+                               List<Long> ids) {
+        for (var id : ids) {
+            var result = results.remove(id);
+            if (result != null) {
+                ranking.remove(result);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void resultPersisted(GameResult result) {
+        add(ranking, results, result);
+        if (persistedDuringRebuild != null) {
+            persistedDuringRebuild.add(result);
+        }
+    }
+
+    @Override
+    public synchronized void resultsRemoved(List<Long> ids) {
+        remove(ranking, results, ids);
+        if (removedDuringRebuild != null) {
+            removedDuringRebuild.addAll(ids);
+        }
+    }
+
+    /**
+     * {@return the rank of a result starting from 1, or -1 if the result is
+     * not on the leaderboard}
+     *
+     * @param result a result
+     */
+    public synchronized int rank(GameResult result) {
+        var stored = results.get(result.getId());
+        return stored == null ? -1 : ranking.indexOf(stored) + 1;
+    }
+
+    /**
+     * {@return the results around a rank in ascending order of their ranks}
+     *
+     * @param rank a rank starting from 1
+     * @param radius the maximum number of results returned before and after
+     *               the result at the rank specified
+     */
+    public synchronized List<GameResult> around(int rank, int radius) {
+        return ranking.range(rank - 1 - radius, rank + radius);
+    }
+
+    /**
+     * {@return the {@code n} best results}
+     *
+     * @param n the maximum number of results to be returned
+     */
+    public synchronized List<GameResult> top(int n) {
+        return ranking.range(0, n);
+    }
+
+    /**
+     * {@return the number of results on the leaderboard}
+     */
+    public synchronized int size() {
+        return ranking.size();
+    }
+
+}
@@ -0,0 +1,68 @@
+package rollingcubes.results;
+
+import com.google.inject.persist.Transactional;
+import util.jpa.GenericJpaDao;
+
+import javax.persistence.LockModeType;
+
+import java.sql.SQLException;
+
+import org.hibernate.Session;
+
+/**
+ * DAO class for the {@link PlayerStatistics} entity.
+ */
+public class PlayerStatisticsDao extends GenericJpaDao<PlayerStatistics> {
+
+    /**
+     * The SQL state of the violation of a unique constraint.
+     */
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    public PlayerStatisticsDao() {
+        super(PlayerStatistics.class);
+    }
+
+    /**
+     * Updates the statistics of the player of a result. When invoked within
+     * the transaction that persists the result, the statistics are updated
+     * atomically with it. The row of the player is inserted first if it does
+     * not exist, then it is locked until the end of the transaction, so that
+     * concurrent updates are not lost, even for the first results of a new
+     * player.
+     *
+     * @param result a result
+     */
+    @Transactional
+    public void add(GameResult result) {
+        insertIfAbsent(result.getPlayer());
+        var statistics = getEntityManager().find(PlayerStatistics.class, result.getPlayer(),
+                LockModeType.PESSIMISTIC_WRITE);
+        statistics.add(result);
+    }
+
+    /**
+     * Inserts the empty statistics of a player unless they exist. The
+     * statement is executed directly on the connection, because a
+     * constraint violation reported by the entity manager would mark the
+     * transaction for rollback. When another transaction inserts the row of
+     * the player concurrently, the statement waits for it, and the violation
+     * of the primary key is ignored.
+     */
+    private void insertIfAbsent(String player) {
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (var statement = connection.prepareStatement("MERGE INTO PlayerStatistics t"
+                    + " USING (VALUES (CAST(? AS VARCHAR))) s(player) ON t.player = s.player"
+                    + " WHEN NOT MATCHED THEN INSERT (player, games, solvedGames, totalSteps)"
+                    + " VALUES (s.player, 0, 0, 0)")) {
+                statement.setString(1, player);
+                statement.executeUpdate();
+            } catch (SQLException e) {
+                if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                    throw e;
+                }
+            }
+        });
+    }
+
+}
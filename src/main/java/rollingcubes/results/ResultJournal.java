@@ -0,0 +1,503 @@
+package rollingcubes.results;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import javax.persistence.LockTimeoutException;
+import javax.persistence.PessimisticLockException;
+import javax.persistence.QueryTimeoutException;
+
+import org.tinylog.Logger;
+
+/**
+ * Append-only journal of the results, that captures the results durably in
+ * a memory-mapped file and saves them into the database asynchronously.
+ * Thus a locked or slow database neither loses results nor blocks the
+ * caller.
+ *
+ * <p>The journal consists of fixed-size records, each of them holding a
+ * CRC-32 checksum of its content, a flag indicating whether the result has
+ * been saved into the database, and the fields of the result. A background
+ * thread saves the records in the order of appending, and retries later if
+ * the database fails transiently, e.g., it is locked or the connection is
+ * lost. A record that fails for any other reason, e.g., a constraint
+ * violation, is copied into a dead-letter file named after the journal file
+ * with the extension {@code .failed}, in the same format as the journal, and
+ * is skipped, so that it does not hold up the records appended after it.
+ * The journal is cleared whenever all of its records have been saved or
+ * skipped.</p>
+ *
+ * <p>When the journal is opened, the records that have not been saved are
+ * recovered and saved, and a record whose checksum does not match, that is
+ * the record being written at a crash, is discarded. Since the process may
+ * have crashed after saving a result but before flagging it, the first
+ * record recovered is only saved if the database does not contain it
+ * already.</p>
+ *
+ * <p>A journal file is locked while it is open, so that two processes never
+ * write the same file. If the file is locked, the journal falls back to the
+ * first file of the same directory named with a numeric suffix, e.g.,
+ * {@code rollingcubes-1.journal}, that is not locked. Thus the records left
+ * in such a file by a process are recovered by the next process that falls
+ * back to it.</p>
+ */
+public class ResultJournal implements Closeable {
+
+    /**
+     * The default location of the journal, next to the database.
+     */
+    public static final Path DEFAULT_PATH = Path.of(System.getProperty("user.home"), ".h2", "rollingcubes.journal");
+
+    /**
+     * The size of the records in bytes.
+     */
+    public static final int RECORD_SIZE = 256;
+
+    private static final byte EMPTY = 0;
+    private static final byte PENDING = 1;
+    private static final byte SAVED = 2;
+    private static final byte FAILED = 3;
+
+    private static final int CRC_OFFSET = 0;
+    private static final int FLAG_OFFSET = 4;
+    private static final int CONTENT_OFFSET = 8;
+    private static final int DURATION_OFFSET = 8;
+    private static final int CREATED_SECONDS_OFFSET = 16;
+    private static final int CREATED_NANOS_OFFSET = 24;
+    private static final int STEPS_OFFSET = 28;
+    private static final int SOLVED_OFFSET = 32;
+    private static final int PLAYER_LENGTH_OFFSET = 33;
+    private static final int PLAYER_OFFSET = 34;
+
+    /**
+     * The maximum length of the encoded name of a player, longer names are
+     * truncated.
+     */
+    public static final int MAX_PLAYER_LENGTH = RECORD_SIZE - PLAYER_OFFSET;
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    /**
+     * The maximum number of files with a numeric suffix tried when the
+     * journal file is locked.
+     */
+    private static final int MAX_FALLBACKS = 16;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final FileLock lock;
+
+    private final GameResultDao gameResultDao;
+
+    private final Path deadLetterPath;
+
+    private final ScheduledThreadPoolExecutor saver = new ScheduledThreadPoolExecutor(1, runnable -> {
+        var thread = new Thread(runnable, "result-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private MappedByteBuffer buffer;
+
+    private int capacity;
+
+    /**
+     * The index of the next record to be written.
+     */
+    private int writeIndex;
+
+    /**
+     * The index of the next record to be saved into the database.
+     */
+    private int saveIndex;
+
+    /**
+     * Whether the next record to be saved has been recovered and thus may be
+     * in the database already.
+     */
+    private boolean recovered;
+
+    /**
+     * The futures of the records appended since the journal has been
+     * opened, indexed by the index of the record.
+     */
+    private final Map<Integer, CompletableFuture<GameResult>> futures = new HashMap<>();
+
+    private ResultJournal(Path path, FileChannel channel, FileLock lock, int capacity, GameResultDao gameResultDao)
+            throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.lock = lock;
+        this.capacity = capacity;
+        this.gameResultDao = gameResultDao;
+        deadLetterPath = path.resolveSibling(path.getFileName() + ".failed");
+        // a pending retry is dropped on closing, the record is saved when the journal is opened again
+        saver.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+    }
+
+    /**
+     * Opens a journal, and starts saving the records recovered. If the file
+     * specified is locked by another journal, the first file with a numeric
+     * suffix that is not locked is opened instead.
+     *
+     * @param path the path of the journal file, that is created if it does
+     *             not exist
+     * @param initialCapacity the number of records of a new journal file
+     * @param gameResultDao the DAO used to save the results
+     * @return the journal
+     * @throws IOException if the file can not be opened, or if all the files
+     * tried are locked
+     */
+    public static ResultJournal open(Path path, int initialCapacity, GameResultDao gameResultDao) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        for (var i = 0; i <= MAX_FALLBACKS; i++) {
+            var candidate = i == 0 ? path : withSuffix(path, i);
+            var channel = FileChannel.open(candidate, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // locked by another journal of this process
+                lock = null;
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            if (lock == null) {
+                channel.close();
+                Logger.warn("The result journal {} is in use by another process", candidate);
+                continue;
+            }
+            ResultJournal journal = null;
+            try {
+                var capacity = (int) Math.max(initialCapacity, channel.size() / RECORD_SIZE);
+                journal = new ResultJournal(candidate, channel, lock, capacity, gameResultDao);
+                journal.recover();
+                return journal;
+            } catch (IOException | RuntimeException e) {
+                if (journal != null) {
+                    journal.saver.shutdownNow();
+                }
+                try {
+                    lock.release();
+                    channel.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+        }
+        throw new IOException("All result journals are in use: " + path);
+    }
+
+    /**
+     * {@return the path of a journal file with a numeric suffix inserted
+     * before the extension}
+     */
+    private static Path withSuffix(Path path, int suffix) {
+        var name = path.getFileName().toString();
+        var dot = name.lastIndexOf('.');
+        var suffixed = dot > 0
+                ? name.substring(0, dot) + "-" + suffix + name.substring(dot)
+                : name + "-" + suffix;
+        return path.resolveSibling(suffixed);
+    }
+
+    /**
+     * {@return the path of the journal file, that differs from the one
+     * specified on opening if that one was locked}
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * {@return the path of the dead-letter file, that holds the records
+     * failed to be saved for a reason other than a transient failure of the
+     * database}
+     */
+    public Path getDeadLetterPath() {
+        return deadLetterPath;
+    }
+
+    private synchronized void recover() {
+        saveIndex = -1;
+        for (writeIndex = 0; writeIndex < capacity; writeIndex++) {
+            var offset = writeIndex * RECORD_SIZE;
+            var flag = buffer.get(offset + FLAG_OFFSET);
+            if (flag == EMPTY) {
+                break;
+            }
+            if (buffer.getInt(offset + CRC_OFFSET) != checksum(offset)) {
+                Logger.warn("Discarding corrupt record {} of the result journal", writeIndex);
+                clear(writeIndex, writeIndex + 1);
+                break;
+            }
+            if (flag == PENDING && saveIndex == -1) {
+                saveIndex = writeIndex;
+            }
+        }
+        if (saveIndex == -1) {
+            saveIndex = writeIndex;
+        }
+        recovered = saveIndex < writeIndex;
+        if (recovered) {
+            Logger.info("Recovered {} results from the result journal", writeIndex - saveIndex);
+            saver.execute(this::save);
+        }
+    }
+
+    private int checksum(int offset) {
+        var crc = new CRC32();
+        crc.update(buffer.slice(offset + CONTENT_OFFSET, RECORD_SIZE - CONTENT_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Appends a result to the journal. The method returns once the result
+     * has been written to the storage device, and the result is saved into
+     * the database in the background.
+     *
+     * @param result the result to be appended
+     * @return a future that is completed with the result saved into the
+     * database, whose id has been assigned
+     * @throws UncheckedIOException if an I/O error occurs
+     */
+    public synchronized CompletableFuture<GameResult> append(GameResult result) {
+        if (writeIndex == capacity) {
+            grow();
+        }
+        var offset = writeIndex * RECORD_SIZE;
+        var created = result.getCreated() != null ? result.getCreated() : ZonedDateTime.now();
+        created = created.truncatedTo(ChronoUnit.MICROS);
+        var player = encode(result.getPlayer());
+        buffer.putLong(offset + DURATION_OFFSET, result.getDuration().toNanos());
+        buffer.putLong(offset + CREATED_SECONDS_OFFSET, created.toEpochSecond());
+        buffer.putInt(offset + CREATED_NANOS_OFFSET, created.getNano());
+        buffer.putInt(offset + STEPS_OFFSET, result.getSteps());
+        buffer.put(offset + SOLVED_OFFSET, (byte) (result.isSolved() ? 1 : 0));
+        buffer.put(offset + PLAYER_LENGTH_OFFSET, (byte) player.length);
+        buffer.put(offset + PLAYER_OFFSET, player);
+        buffer.putInt(offset + CRC_OFFSET, checksum(offset));
+        buffer.put(offset + FLAG_OFFSET, PENDING);
+        buffer.force(offset, RECORD_SIZE);
+        var future = new CompletableFuture<GameResult>();
+        futures.put(writeIndex, future);
+        writeIndex++;
+        saver.execute(this::save);
+        return future;
+    }
+
+    /**
+     * {@return the UTF-8 encoding of a name of a player truncated to
+     * {@link #MAX_PLAYER_LENGTH} bytes at a character boundary}
+     */
+    private static byte[] encode(String player) {
+        var bytes = player.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_PLAYER_LENGTH) {
+            return bytes;
+        }
+        var length = MAX_PLAYER_LENGTH;
+        while ((bytes[length] & 0xc0) == 0x80) {
+            length--;
+        }
+        var truncated = new byte[length];
+        System.arraycopy(bytes, 0, truncated, 0, length);
+        return truncated;
+    }
+
+    private GameResult decode(int index) {
+        var offset = index * RECORD_SIZE;
+        var player = new byte[buffer.get(offset + PLAYER_LENGTH_OFFSET) & 0xff];
+        buffer.get(offset + PLAYER_OFFSET, player);
+        var created = Instant.ofEpochSecond(buffer.getLong(offset + CREATED_SECONDS_OFFSET),
+                buffer.getInt(offset + CREATED_NANOS_OFFSET));
+        return GameResult.builder()
+                .player(new String(player, StandardCharsets.UTF_8))
+                .solved(buffer.get(offset + SOLVED_OFFSET) != 0)
+                .steps(buffer.getInt(offset + STEPS_OFFSET))
+                .duration(Duration.ofNanos(buffer.getLong(offset + DURATION_OFFSET)))
+                .created(ZonedDateTime.ofInstant(created, ZoneId.systemDefault()))
+                .build();
+    }
+
+    private void grow() {
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * 2 * RECORD_SIZE);
+            capacity *= 2;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Saves the pending records into the database, runs on the thread of
+     * {@link #saver}.
+     */
+    private void save() {
+        while (true) {
+            int index;
+            GameResult result;
+            boolean verify;
+            synchronized (this) {
+                if (saveIndex == writeIndex) {
+                    if (writeIndex > 0) {
+                        clear(0, writeIndex);
+                        saveIndex = writeIndex = 0;
+                    }
+                    return;
+                }
+                if (saver.isShutdown()) {
+                    return;
+                }
+                index = saveIndex;
+                result = decode(index);
+                verify = recovered;
+            }
+            try {
+                if (!verify || !gameResultDao.contains(result)) {
+                    gameResultDao.persist(result);
+                }
+            } catch (RuntimeException e) {
+                if (isRetryable(e)) {
+                    Logger.warn("Failed to save result of {}, retrying in {} ms: {}", result.getPlayer(),
+                            RETRY_DELAY_MILLIS, e.getMessage());
+                    if (!saver.isShutdown()) {
+                        saver.schedule(this::save, RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                    }
+                    return;
+                }
+                Logger.error(e, "Failed to save result of {}, moving it to {}: {}", result.getPlayer(),
+                        deadLetterPath, result);
+                var future = finish(index, FAILED);
+                if (future != null) {
+                    future.completeExceptionally(e);
+                }
+                continue;
+            }
+            var future = finish(index, SAVED);
+            if (future != null) {
+                future.complete(result);
+            }
+        }
+    }
+
+    /**
+     * Flags the record to be saved next as saved or failed, and copies a
+     * failed record into the dead-letter file.
+     *
+     * @return the future of the record, or {@code null} if the record has
+     * been recovered
+     */
+    private synchronized CompletableFuture<GameResult> finish(int index, byte flag) {
+        var offset = index * RECORD_SIZE;
+        if (flag == FAILED) {
+            try (var deadLetter = FileChannel.open(deadLetterPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                deadLetter.write(buffer.slice(offset, RECORD_SIZE));
+                deadLetter.force(false);
+            } catch (IOException e) {
+                Logger.error(e, "Failed to write the dead-letter file {}", deadLetterPath);
+            }
+        }
+        buffer.put(offset + FLAG_OFFSET, flag);
+        buffer.force(offset, RECORD_SIZE);
+        saveIndex++;
+        recovered = false;
+        return futures.remove(index);
+    }
+
+    /**
+     * {@return whether a failure to save a result is transient, e.g., a lock
+     * timeout, a deadlock or a lost connection, thus saving the result again
+     * later may succeed}
+     */
+    static boolean isRetryable(Throwable e) {
+        for (var cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PessimisticLockException || cause instanceof LockTimeoutException
+                    || cause instanceof QueryTimeoutException || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            // connection exceptions, transaction rollbacks such as deadlocks, and timeouts
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                    && (sqlException.getSQLState().startsWith("08") || sqlException.getSQLState().startsWith("40")
+                    || sqlException.getSQLState().equals("HYT00"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Clears the records between the indices specified, from the last one
+     * to the first one, so that a crash meanwhile does not leave a gap
+     * before records in use.
+     */
+    private void clear(int fromIndex, int toIndex) {
+        var empty = ByteBuffer.allocate(RECORD_SIZE);
+        for (var index = toIndex - 1; index >= fromIndex; index--) {
+            buffer.put(index * RECORD_SIZE, empty, 0, RECORD_SIZE);
+        }
+        buffer.force(fromIndex * RECORD_SIZE, (toIndex - fromIndex) * RECORD_SIZE);
+    }
+
+    /**
+     * {@return the number of records that have not been saved into the
+     * database yet}
+     */
+    public synchronized int getPendingCount() {
+        return writeIndex - saveIndex;
+    }
+
+    /**
+     * Stops saving the records once the record being saved has been saved,
+     * and closes the journal file. The records that have not been saved are
+     * saved when the journal is opened again.
+     */
+    @Override
+    public void close() throws IOException {
+        saver.shutdown();
+        try {
+            saver.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            buffer.force();
+            lock.release();
+            channel.close();
+        }
+    }
+
+}
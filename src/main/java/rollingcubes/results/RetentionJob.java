@@ -0,0 +1,202 @@
+package rollingcubes.results;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.google.inject.Guice;
+
+import org.hibernate.Session;
+import org.tinylog.Logger;
+
+import util.cli.Options;
+import util.guice.PersistenceModule;
+import util.metrics.Counter;
+import util.metrics.Metrics;
+
+/**
+ * Job that bounds the growth of the results by removing the unsolved
+ * results and the solved results superseded by the better results of the
+ * same player. The best results of each player in the order of
+ * {@link GameResultDao#findBest(int)} are kept, and the statistics of the
+ * players are left intact.
+ *
+ * <p>The results are removed with bulk deletes of at most a batch of rows,
+ * each in a separate transaction, thus the job holds the locks of only a
+ * few rows at a time and the games save their results meanwhile. The job
+ * can be run once, or periodically on a background thread with
+ * {@link #start(Duration)}.</p>
+ */
+public class RetentionJob implements Closeable {
+
+    /**
+     * The default number of the best results kept for each player.
+     */
+    public static final int DEFAULT_KEEP = 10;
+
+    /**
+     * The default maximum number of results removed in a transaction.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private static final int PLAYER_PAGE_SIZE = 100;
+
+    private static final Counter prunedCounter = Metrics.counter("retention.pruned");
+
+    private final GameResultDao gameResultDao;
+
+    private final int keep;
+
+    private final int batchSize;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a {@code RetentionJob} object.
+     *
+     * @param gameResultDao the DAO used to remove the results
+     * @param keep the number of the best results kept for each player
+     * @param batchSize the maximum number of results removed in a
+     *                  transaction
+     * @throws IllegalArgumentException if {@code keep} is negative or
+     * {@code batchSize} is not positive
+     */
+    public RetentionJob(GameResultDao gameResultDao, int keep, int batchSize) {
+        if (keep < 0) {
+            throw new IllegalArgumentException("Invalid number of results to keep: " + keep);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        this.gameResultDao = gameResultDao;
+        this.keep = keep;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Removes the unsolved and the superseded results.
+     *
+     * @return the number of results removed
+     */
+    public long run() {
+        var start = System.nanoTime();
+        var pruned = 0L;
+        int removed;
+        while ((removed = gameResultDao.removeUnsolved(batchSize)) > 0) {
+            pruned += removed;
+            prunedCounter.add(removed);
+        }
+        var after = "";
+        while (true) {
+            var players = gameResultDao.findPlayersWithMoreSolved(keep, after, PLAYER_PAGE_SIZE);
+            for (var player : players) {
+                while ((removed = gameResultDao.removeSuperseded(player, keep, batchSize)) > 0) {
+                    pruned += removed;
+                    prunedCounter.add(removed);
+                }
+            }
+            if (players.size() < PLAYER_PAGE_SIZE) {
+                break;
+            }
+            after = players.get(players.size() - 1);
+        }
+        var nanos = Math.max(1, System.nanoTime() - start);
+        Logger.info("Pruned {} results in {} ms ({} rows/s)", pruned, nanos / 1_000_000,
+                pruned * 1_000_000_000 / nanos);
+        return pruned;
+    }
+
+    /**
+     * Starts running the job periodically on a background thread. Failures
+     * are logged, and the job is run again after the period.
+     *
+     * @param period the time between the runs, the first run starts
+     *               immediately
+     * @throws IllegalStateException if the job has been started already
+     */
+    public synchronized void start(Duration period) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Retention job already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "retention-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                run();
+            } catch (RuntimeException e) {
+                Logger.error(e, "Retention job failed");
+            }
+        }, 0, period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops running the job periodically, and waits for the current run to
+     * complete.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Compacts the H2 database file, that does not shrink when rows are
+     * removed, and closes the database. Thus no other process may use the
+     * database meanwhile, and the DAO must not be used afterwards.
+     *
+     * @param gameResultDao a DAO of the database
+     */
+    public static void compact(GameResultDao gameResultDao) {
+        gameResultDao.getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (var statement = connection.createStatement()) {
+                statement.execute("SHUTDOWN COMPACT");
+            }
+        });
+    }
+
+    /**
+     * Runs the job once, then compacts the database. Options are given in
+     * {@code --name=value} form: {@code --keep} the number of the best
+     * results kept for each player (default 10), {@code --batch-size} the
+     * maximum number of results removed in a transaction (default 1000),
+     * {@code --compact} whether to compact the database (default
+     * {@code true}), and {@code --url} the JDBC URL of the database (default
+     * is the one of the persistence unit).
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        var options = Options.parse(args);
+        var keep = Integer.parseInt(options.getOrDefault("keep", String.valueOf(DEFAULT_KEEP)));
+        var batchSize = Integer.parseInt(options.getOrDefault("batch-size", String.valueOf(DEFAULT_BATCH_SIZE)));
+        var injector = Guice.createInjector(options.containsKey("url")
+                ? new PersistenceModule("rolling-cubes", Map.of("javax.persistence.jdbc.url", options.get("url")))
+                : new PersistenceModule("rolling-cubes"));
+        var gameResultDao = injector.getInstance(GameResultDao.class);
+        var rowsBefore = gameResultDao.count();
+        var start = System.nanoTime();
+        var pruned = new RetentionJob(gameResultDao, keep, batchSize).run();
+        var seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Rows: %d -> %d%n", rowsBefore, gameResultDao.count());
+        System.out.printf("Rows pruned: %d in %.3f s (%.0f rows/s)%n", pruned, seconds, pruned / seconds);
+        if (Boolean.parseBoolean(options.getOrDefault("compact", "true"))) {
+            start = System.nanoTime();
+            compact(gameResultDao);
+            System.out.printf("Database compacted in %.3f s%n", (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+package rollingcubes.server;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+import rollingcubes.solver.Difficulty;
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+
+/**
+ * Blocking client of {@link GameServer}. Instances of this class are not
+ * thread-safe.
+ */
+public class GameClient implements Closeable {
+
+    private final SocketChannel channel;
+
+    private final ByteBuffer out = ByteBuffer.allocate(Protocol.MAX_REQUEST_LENGTH);
+
+    private final ByteBuffer in = ByteBuffer.allocate(Protocol.MAX_RESPONSE_LENGTH);
+
+    private long sessionId;
+
+    /**
+     * Creates a {@code GameClient} object connected to the server at the
+     * address specified.
+     *
+     * @param address the address of the server
+     * @throws IOException if the connection can not be established
+     */
+    public GameClient(InetSocketAddress address) throws IOException {
+        channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+
+    /**
+     * Starts a new game, the game in progress is discarded.
+     *
+     * @param player the name of the player
+     * @param difficulty the difficulty of the game
+     * @return the packed start state
+     * @throws IllegalArgumentException if the encoded name of the player is
+     * longer than {@value Protocol#MAX_PLAYER_LENGTH} bytes
+     * @throws IOException if an I/O error occurs
+     */
+    public int hello(String player, Difficulty difficulty) throws IOException {
+        var bytes = player.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Protocol.MAX_PLAYER_LENGTH) {
+            throw new IllegalArgumentException();
+        }
+        out.put(Protocol.HELLO).put((byte) difficulty.ordinal()).put((byte) bytes.length).put(bytes);
+        var response = request(Protocol.STARTED, 12);
+        sessionId = response.getLong();
+        return response.getInt();
+    }
+
+    /**
+     * Rolls the cube next to the empty space to the direction specified.
+     *
+     * @param direction the direction to which the cube is rolled
+     * @return the resulting packed state, or {@link PackedState#NO_MOVE} if
+     * the move is not possible
+     * @throws IllegalStateException if there is no game in progress
+     * @throws IOException if an I/O error occurs
+     */
+    public int move(Direction direction) throws IOException {
+        out.put(Protocol.MOVE).put((byte) direction.ordinal());
+        var response = request(Protocol.MOVED, 4);
+        return response == null ? PackedState.NO_MOVE : response.getInt();
+    }
+
+    /**
+     * Ends the game in progress and makes the server save its result.
+     *
+     * @return whether the puzzle has been solved
+     * @throws IllegalStateException if there is no game in progress
+     * @throws IOException if an I/O error occurs
+     */
+    public boolean finish() throws IOException {
+        out.put(Protocol.FINISH);
+        var response = request(Protocol.FINISHED, 5);
+        return response.get() != 0;
+    }
+
+    /**
+     * {@return the id of the session of the last game started}
+     */
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Sends the request in the output buffer and reads the response.
+     *
+     * @return the buffer positioned at the payload of the response, or
+     * {@code null} if the server has rejected an illegal move
+     */
+    private ByteBuffer request(byte type, int length) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+        in.clear().limit(2);
+        readFully();
+        if (in.get(0) == Protocol.ERROR) {
+            if (in.get(1) == Protocol.ILLEGAL_MOVE) {
+                return null;
+            }
+            throw new IllegalStateException("No game in progress");
+        }
+        if (in.get(0) != type) {
+            throw new ProtocolException("Unexpected message type: " + in.get(0));
+        }
+        in.limit(1 + length);
+        readFully();
+        return in.position(1);
+    }
+
+    private void readFully() throws IOException {
+        while (in.hasRemaining()) {
+            if (channel.read(in) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,438 @@
+package rollingcubes.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+import com.google.inject.Guice;
+
+import org.tinylog.Logger;
+
+import rollingcubes.results.GameResult;
+import rollingcubes.results.GameResultDao;
+import rollingcubes.results.ResultJournal;
+import rollingcubes.results.RetentionJob;
+import rollingcubes.solver.Difficulty;
+import rollingcubes.solver.StartPositionGenerator;
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+import util.cli.Options;
+import util.guice.PersistenceModule;
+import util.metrics.Counter;
+import util.metrics.Metrics;
+
+/**
+ * Game server that holds the authoritative state of the games played by its
+ * clients, and saves the results of the games centrally. Clients talk to
+ * the server with the binary protocol defined in {@link Protocol}, each
+ * connection can play one game at a time. The games in progress are kept in
+ * a {@link SessionStore}.
+ *
+ * <p>All connections are served by a single thread with non-blocking I/O,
+ * thus the number of concurrent sessions is limited only by memory and the
+ * number of file descriptors. The results are handed to the consumer
+ * specified on a separate thread, so that a slow database does not stall
+ * the games. A result that the consumer fails to accept is retried a few
+ * times, and counted in the {@code server.results.failed} counter if all
+ * the attempts fail. When run from the command line, the server appends the
+ * results to a {@link ResultJournal}, thus they survive a locked database
+ * or a crash.</p>
+ */
+public class GameServer implements Closeable {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private static final Difficulty[] DIFFICULTIES = Difficulty.values();
+
+    private static final long NO_SESSION = -1;
+
+    private static final Counter movesCounter = Metrics.counter("server.moves");
+
+    private static final Counter resultsCounter = Metrics.counter("server.results");
+
+    private static final Counter failedResultsCounter = Metrics.counter("server.results.failed");
+
+    /**
+     * The number of attempts to hand a result to the consumer.
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final long RETRY_DELAY_MILLIS = 100;
+
+    private final ToIntFunction<Difficulty> startPositions;
+
+    private final Consumer<GameResult> resultConsumer;
+
+    private final Selector selector;
+
+    private final ServerSocketChannel serverChannel;
+
+    private final ExecutorService resultExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "game-server-results");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Thread thread;
+
+    /**
+     * The games in progress, accessed only by the thread of the server.
+     */
+    private final SessionStore sessions = new SessionStore(1024);
+
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private volatile boolean running = true;
+
+    /**
+     * Creates a {@code GameServer} object and starts serving the clients.
+     *
+     * @param address the address to listen on, the port 0 means an
+     *                automatically allocated port
+     * @param startPositions the function that returns the packed start
+     *                       state of the games for each difficulty
+     * @param resultConsumer the consumer that saves the results of the
+     *                       games
+     * @throws IOException if the server socket can not be opened
+     */
+    public GameServer(InetSocketAddress address, ToIntFunction<Difficulty> startPositions,
+                      Consumer<GameResult> resultConsumer) throws IOException {
+        this.startPositions = startPositions;
+        this.resultConsumer = resultConsumer;
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        thread = new Thread(this::serve, "game-server");
+        thread.start();
+        Logger.info("Game server listening on {}", serverChannel.getLocalAddress());
+    }
+
+    /**
+     * {@return the address the server is listening on}
+     */
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress) serverChannel.getLocalAddress();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * {@return the number of open client connections}
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    private void serve() {
+        while (running) {
+            try {
+                selector.select(key -> {
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            if (key.isReadable() && !read(key)) {
+                                close(key);
+                                return;
+                            }
+                            process(key);
+                        }
+                    } catch (IOException e) {
+                        Logger.debug("Closing connection: {}", e.getMessage());
+                        close(key);
+                    }
+                });
+            } catch (IOException e) {
+                Logger.error(e, "Game server failed");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Accepts the pending connections. Failures, e.g., running out of file
+     * descriptors, are logged and do not close the server socket.
+     */
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+                connectionCount.incrementAndGet();
+            }
+        } catch (IOException e) {
+            Logger.warn("Failed to accept connection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the available bytes of a connection.
+     *
+     * @return {@code false} if the client has closed the connection
+     */
+    private boolean read(SelectionKey key) throws IOException {
+        var connection = (Connection) key.attachment();
+        return connection.channel.read(connection.in) >= 0;
+    }
+
+    /**
+     * Handles the complete requests received and writes the responses.
+     * Reading is suspended while the client does not receive the pending
+     * responses.
+     */
+    private void process(SelectionKey key) throws IOException {
+        var connection = (Connection) key.attachment();
+        var in = connection.in;
+        var out = connection.out;
+        in.flip();
+        while (out.remaining() >= Protocol.MAX_RESPONSE_LENGTH && handle(connection)) {
+            // handle the next request
+        }
+        in.compact();
+        out.flip();
+        connection.channel.write(out);
+        out.compact();
+        key.interestOps(out.position() > 0 ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    /**
+     * Handles the request at the beginning of the input buffer.
+     *
+     * @return {@code false} if the input buffer does not contain a complete
+     * request
+     */
+    private boolean handle(Connection connection) throws ProtocolException {
+        var in = connection.in;
+        if (!in.hasRemaining()) {
+            return false;
+        }
+        var position = in.position();
+        switch (in.get(position)) {
+            case Protocol.HELLO -> {
+                if (in.remaining() < 3 || in.remaining() < 3 + (in.get(position + 2) & 0xff)) {
+                    return false;
+                }
+                in.get();
+                var difficulty = in.get() & 0xff;
+                var player = new byte[in.get() & 0xff];
+                in.get(player);
+                if (difficulty >= DIFFICULTIES.length) {
+                    throw new ProtocolException("Invalid difficulty: " + difficulty);
+                }
+                hello(connection, DIFFICULTIES[difficulty], new String(player, StandardCharsets.UTF_8));
+            }
+            case Protocol.MOVE -> {
+                if (in.remaining() < 2) {
+                    return false;
+                }
+                in.get();
+                var direction = in.get() & 0xff;
+                if (direction >= DIRECTIONS.length) {
+                    throw new ProtocolException("Invalid direction: " + direction);
+                }
+                move(connection, DIRECTIONS[direction]);
+            }
+            case Protocol.FINISH -> {
+                in.get();
+                finish(connection);
+            }
+            default -> throw new ProtocolException("Invalid message type: " + in.get(position));
+        }
+        return true;
+    }
+
+    private void hello(Connection connection, Difficulty difficulty, String player) {
+        if (connection.session != NO_SESSION) {
+            sessions.remove(connection.session);
+        }
+        var state = startPositions.applyAsInt(difficulty);
+        connection.session = sessions.create(player, state, System.nanoTime());
+        connection.out.put(Protocol.STARTED).putLong(connection.session).putInt(state);
+    }
+
+    private void move(Connection connection, Direction direction) {
+        if (connection.session == NO_SESSION) {
+            connection.out.put(Protocol.ERROR).put(Protocol.NO_GAME);
+            return;
+        }
+        var state = sessions.move(connection.session, direction);
+        if (state == PackedState.NO_MOVE) {
+            connection.out.put(Protocol.ERROR).put(Protocol.ILLEGAL_MOVE);
+            return;
+        }
+        movesCounter.increment();
+        connection.out.put(Protocol.MOVED).putInt(state);
+    }
+
+    private void finish(Connection connection) {
+        var session = connection.session;
+        if (session == NO_SESSION) {
+            connection.out.put(Protocol.ERROR).put(Protocol.NO_GAME);
+            return;
+        }
+        var result = GameResult.builder()
+                .player(sessions.getPlayer(session))
+                .solved(PackedState.isSolved(sessions.getState(session)))
+                .steps(sessions.getSteps(session))
+                .duration(Duration.ofNanos(System.nanoTime() - sessions.getStartNanos(session)))
+                .build();
+        sessions.remove(session);
+        connection.session = NO_SESSION;
+        connection.out.put(Protocol.FINISHED).put((byte) (result.isSolved() ? 1 : 0)).putInt(result.getSteps());
+        resultExecutor.execute(() -> save(result));
+    }
+
+    /**
+     * Hands a result to the consumer, runs on the thread of
+     * {@link #resultExecutor}.
+     */
+    private void save(GameResult result) {
+        for (var attempt = 1; ; attempt++) {
+            try {
+                resultConsumer.accept(result);
+                resultsCounter.increment();
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    failedResultsCounter.increment();
+                    Logger.error(e, "Failed to save result of {}: {}", result.getPlayer(), result);
+                    return;
+                }
+                Logger.warn("Failed to save result of {}, retrying in {} ms: {}", result.getPlayer(),
+                        RETRY_DELAY_MILLIS, e.getMessage());
+            }
+            try {
+                Thread.sleep(RETRY_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedResultsCounter.increment();
+                Logger.error("Interrupted while saving result of {}: {}", result.getPlayer(), result);
+                return;
+            }
+        }
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            Logger.debug("Failed to close connection: {}", e.getMessage());
+        }
+        if (key.attachment() instanceof Connection connection) {
+            if (connection.session != NO_SESSION) {
+                sessions.remove(connection.session);
+            }
+            connectionCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stops the server, closes the connections and waits for the results
+     * received to be saved. The games in progress are discarded.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+            resultExecutor.shutdown();
+            resultExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (var key : selector.keys()) {
+            close(key);
+        }
+        selector.close();
+    }
+
+    private static class Connection {
+
+        private final SocketChannel channel;
+
+        private final ByteBuffer in = ByteBuffer.allocate(2 * Protocol.MAX_REQUEST_LENGTH);
+
+        private final ByteBuffer out = ByteBuffer.allocate(16 * Protocol.MAX_RESPONSE_LENGTH);
+
+        private long session = NO_SESSION;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+    }
+
+    /**
+     * Runs the server until the process is terminated. Options are given in
+     * {@code --name=value} form: {@code --port} the port to listen on
+     * (default 7777), {@code --url} the JDBC URL of the database where the
+     * results are saved (default is the one of the persistence unit),
+     * {@code --journal} the path of the {@link ResultJournal} through which
+     * the results are saved (default is {@link ResultJournal#DEFAULT_PATH}),
+     * and {@code --keep-best} the number of the best results of each player
+     * kept by a daily {@link RetentionJob} (default is to keep all results).
+     *
+     * @param args the command line arguments
+     * @throws IOException if the server socket or the journal can not be
+     * opened
+     */
+    public static void main(String[] args) throws IOException {
+        var options = Options.parse(args);
+        var port = Integer.parseInt(options.getOrDefault("port", "7777"));
+        var injector = Guice.createInjector(options.containsKey("url")
+                ? new PersistenceModule("rolling-cubes", Map.of("javax.persistence.jdbc.url", options.get("url")))
+                : new PersistenceModule("rolling-cubes"));
+        var gameResultDao = injector.getInstance(GameResultDao.class);
+        var journal = ResultJournal.open(options.containsKey("journal")
+                ? Path.of(options.get("journal"))
+                : ResultJournal.DEFAULT_PATH, 1024, gameResultDao);
+        var generator = StartPositionGenerator.getInstance();
+        var server = new GameServer(new InetSocketAddress(port),
+                difficulty -> generator.next(difficulty.getDistance()), journal::append);
+        var retentionJob = options.containsKey("keep-best")
+                ? new RetentionJob(gameResultDao, Integer.parseInt(options.get("keep-best")),
+                        RetentionJob.DEFAULT_BATCH_SIZE)
+                : null;
+        if (retentionJob != null) {
+            retentionJob.start(Duration.ofDays(1));
+        }
+        Metrics.startReporting(Duration.ofMinutes(1));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                if (retentionJob != null) {
+                    retentionJob.close();
+                }
+                server.close();
+                journal.close();
+            } catch (IOException e) {
+                Logger.error(e, "Failed to stop game server");
+            }
+        }));
+    }
+
+}
@@ -0,0 +1,77 @@
+package rollingcubes.server;
+
+/**
+ * Defines the binary protocol spoken between {@link GameServer} and
+ * {@link GameClient}. Each message starts with a type byte followed by a
+ * fixed layout, integers are in big-endian byte order.
+ *
+ * <p>Requests sent by the client:</p>
+ * <ul>
+ *     <li>{@link #HELLO} {@code difficulty:u8 length:u8 player:byte[length]}
+ *     starts a new game, where {@code difficulty} is the ordinal of a
+ *     {@link rollingcubes.solver.Difficulty} and {@code player} is the UTF-8
+ *     encoded name of the player</li>
+ *     <li>{@link #MOVE} {@code direction:u8} rolls a cube to the direction
+ *     with the ordinal specified</li>
+ *     <li>{@link #FINISH} ends the game and saves its result</li>
+ * </ul>
+ *
+ * <p>Responses sent by the server:</p>
+ * <ul>
+ *     <li>{@link #STARTED} {@code session:i64 state:i32} the id of the
+ *     session and the packed start state</li>
+ *     <li>{@link #MOVED} {@code state:i32} the packed state after the
+ *     move</li>
+ *     <li>{@link #FINISHED} {@code solved:u8 steps:i32} the result of the
+ *     game</li>
+ *     <li>{@link #ERROR} {@code code:u8} the request has been rejected</li>
+ * </ul>
+ *
+ * <p>The server closes the connection on malformed requests.</p>
+ */
+public final class Protocol {
+
+    public static final byte HELLO = 0x01;
+
+    public static final byte MOVE = 0x02;
+
+    public static final byte FINISH = 0x03;
+
+    public static final byte STARTED = (byte) 0x81;
+
+    public static final byte MOVED = (byte) 0x82;
+
+    public static final byte FINISHED = (byte) 0x83;
+
+    public static final byte ERROR = (byte) 0xff;
+
+    /**
+     * Error code sent when the move requested is not possible.
+     */
+    public static final byte ILLEGAL_MOVE = 1;
+
+    /**
+     * Error code sent when a move or finish request is received without a
+     * game in progress.
+     */
+    public static final byte NO_GAME = 2;
+
+    /**
+     * The maximum length of the encoded name of a player.
+     */
+    public static final int MAX_PLAYER_LENGTH = 255;
+
+    /**
+     * The maximum length of a request.
+     */
+    public static final int MAX_REQUEST_LENGTH = 3 + MAX_PLAYER_LENGTH;
+
+    /**
+     * The maximum length of a response.
+     */
+    public static final int MAX_RESPONSE_LENGTH = 13;
+
+    private Protocol() {
+    }
+
+}
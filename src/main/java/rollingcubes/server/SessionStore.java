@@ -0,0 +1,232 @@
+package rollingcubes.server;
+
+import java.util.Arrays;
+
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+
+/**
+ * Store of the live games of the server. Instead of a
+ * {@link rollingcubes.state.RollingCubesState} object per game, the store
+ * keeps the games in a {@code long[]} arena of slots, each slot holding
+ * the packed state and the number of steps in one {@code long}, and the
+ * start time in another. Together with the generation of the slot, its
+ * in-use flag and the reference to the name of the player, a session takes
+ * about 25 bytes besides the name.
+ *
+ * <p>Sessions are identified by a {@code long} that combines the index of
+ * the slot and its 32-bit generation, that is incremented when the slot is
+ * freed, thus ids of removed sessions are not mistaken for the sessions that
+ * reuse their slots, unless a slot is reused 2<sup>32</sup> times. Free slots
+ * are chained into a list through the arena.</p>
+ *
+ * <p>Instances of this class are not thread-safe.</p>
+ */
+public class SessionStore {
+
+    private static final int SLOT_BITS = 22;
+
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+
+    private static final long GENERATION_MASK = 0xffffffffL;
+
+    /**
+     * The maximum number of sessions.
+     */
+    public static final int MAX_CAPACITY = 1 << SLOT_BITS;
+
+    private static final int NO_SLOT = -1;
+
+    private static final long STATE_MASK = 0xffffffffL;
+
+    private static final int STEPS_SHIFT = Integer.SIZE;
+
+    /**
+     * The slots, the element at {@code 2 * slot} holds the packed state and
+     * the number of steps, or the index of the next free slot if the slot is
+     * free. The element at {@code 2 * slot + 1} holds the start time.
+     */
+    private long[] arena;
+
+    private int[] generations;
+
+    private String[] players;
+
+    /**
+     * Whether the slots are in use, indexed by the index of the slot.
+     */
+    private boolean[] used;
+
+    private int freeList = NO_SLOT;
+
+    private int capacity;
+
+    private int size;
+
+    /**
+     * Creates a {@code SessionStore} object.
+     *
+     * @param initialCapacity the number of sessions for which memory is
+     *                        allocated initially
+     * @throws IllegalArgumentException if {@code initialCapacity} is not
+     * between 1 and {@link #MAX_CAPACITY}
+     */
+    public SessionStore(int initialCapacity) {
+        if (initialCapacity < 1 || initialCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException();
+        }
+        arena = new long[2 * initialCapacity];
+        generations = new int[initialCapacity];
+        players = new String[initialCapacity];
+        used = new boolean[initialCapacity];
+    }
+
+    /**
+     * Creates a new session.
+     *
+     * @param player the name of the player
+     * @param state the packed start state
+     * @param startNanos the start time as returned by {@link System#nanoTime()}
+     * @return the id of the session
+     * @throws IllegalStateException if the store holds {@link #MAX_CAPACITY}
+     * sessions
+     */
+    public long create(String player, int state, long startNanos) {
+        int slot;
+        if (freeList != NO_SLOT) {
+            slot = freeList;
+            freeList = (int) arena[2 * slot];
+        } else {
+            if (capacity == used.length) {
+                grow();
+            }
+            slot = capacity++;
+        }
+        arena[2 * slot] = state & STATE_MASK;
+        arena[2 * slot + 1] = startNanos;
+        players[slot] = player;
+        used[slot] = true;
+        size++;
+        return (generations[slot] & GENERATION_MASK) << SLOT_BITS | slot;
+    }
+
+    private void grow() {
+        if (used.length == MAX_CAPACITY) {
+            throw new IllegalStateException("Too many sessions");
+        }
+        var length = (int) Math.min(2L * used.length, MAX_CAPACITY);
+        arena = Arrays.copyOf(arena, 2 * length);
+        generations = Arrays.copyOf(generations, length);
+        players = Arrays.copyOf(players, length);
+        used = Arrays.copyOf(used, length);
+    }
+
+    /**
+     * {@return whether the session with the id specified exists}
+     *
+     * @param id an id of a session
+     */
+    public boolean contains(long id) {
+        var slot = (int) id & SLOT_MASK;
+        return id >= 0 && slot < capacity && used[slot]
+                && (generations[slot] & GENERATION_MASK) == id >>> SLOT_BITS;
+    }
+
+    private int slotOf(long id) {
+        if (!contains(id)) {
+            throw new IllegalArgumentException("No such session: " + id);
+        }
+        return (int) id & SLOT_MASK;
+    }
+
+    /**
+     * Removes a session.
+     *
+     * @param id the id of the session
+     * @throws IllegalArgumentException if there is no session with the id
+     * specified
+     */
+    public void remove(long id) {
+        var slot = slotOf(id);
+        generations[slot]++;
+        players[slot] = null;
+        used[slot] = false;
+        arena[2 * slot] = freeList;
+        freeList = slot;
+        size--;
+    }
+
+    /**
+     * Rolls the cube next to the empty space to the direction specified in
+     * the game of a session.
+     *
+     * @param id the id of the session
+     * @param direction the direction to which the cube is rolled
+     * @return the resulting packed state, or {@link PackedState#NO_MOVE} if
+     * the move is not possible
+     * @throws IllegalArgumentException if there is no session with the id
+     * specified
+     */
+    public int move(long id, Direction direction) {
+        var slot = slotOf(id);
+        var entry = arena[2 * slot];
+        var state = PackedState.move((int) entry, direction);
+        if (state != PackedState.NO_MOVE) {
+            arena[2 * slot] = ((entry >>> STEPS_SHIFT) + 1) << STEPS_SHIFT | state;
+        }
+        return state;
+    }
+
+    /**
+     * {@return the packed state of the game of a session}
+     *
+     * @param id the id of the session
+     * @throws IllegalArgumentException if there is no session with the id
+     * specified
+     */
+    public int getState(long id) {
+        return (int) arena[2 * slotOf(id)];
+    }
+
+    /**
+     * {@return the number of steps made in the game of a session}
+     *
+     * @param id the id of the session
+     * @throws IllegalArgumentException if there is no session with the id
+     * specified
+     */
+    public int getSteps(long id) {
+        return (int) (arena[2 * slotOf(id)] >>> STEPS_SHIFT);
+    }
+
+    /**
+     * {@return the start time of a session as returned by
+     * {@link System#nanoTime()}}
+     *
+     * @param id the id of the session
+     * @throws IllegalArgumentException if there is no session with the id
+     * specified
+     */
+    public long getStartNanos(long id) {
+        return arena[2 * slotOf(id) + 1];
+    }
+
+    /**
+     * {@return the name of the player of a session}
+     *
+     * @param id the id of the session
+     * @throws IllegalArgumentException if there is no session with the id
+     * specified
+     */
+    public String getPlayer(long id) {
+        return players[slotOf(id)];
+    }
+
+    /**
+     * {@return the number of sessions}
+     */
+    public int size() {
+        return size;
+    }
+
+}
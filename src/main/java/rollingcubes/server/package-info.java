@@ -0,0 +1,5 @@
+/**
+ * Provides a game server that holds the games of remote clients and saves
+ * their results centrally.
+ */
+package rollingcubes.server;
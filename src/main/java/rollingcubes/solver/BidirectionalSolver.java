@@ -0,0 +1,128 @@
+package rollingcubes.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+import rollingcubes.state.RollingCubesState;
+import util.collections.IntIntHashMap;
+
+/**
+ * Solver that finds a shortest solution with a bidirectional breadth-first
+ * search without a precomputed {@link DistanceTable}. The search proceeds
+ * forward from the state to be solved and backward from the goal states by
+ * undoing moves, always expanding the smaller frontier by a whole level, until
+ * the two searches meet. The states visited are stored in primitive hash maps
+ * together with their depth and the direction of the move that links them to
+ * their parent.
+ */
+public class BidirectionalSolver {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * {@return the directions to which the cubes are rolled in a shortest
+     * solution of the state specified}
+     *
+     * @param state a state of the puzzle
+     */
+    public List<Direction> solve(RollingCubesState state) {
+        return solve(PackedState.pack(state));
+    }
+
+    /**
+     * {@return the directions to which the cubes are rolled in a shortest
+     * solution of the packed state specified}
+     *
+     * @param state a packed state
+     * @throws IllegalArgumentException if the state is not solvable
+     */
+    public List<Direction> solve(int state) {
+        if (!PackedState.isSolvable(state)) {
+            throw new IllegalArgumentException();
+        }
+        if (PackedState.isSolved(state)) {
+            return List.of();
+        }
+        var forward = new IntIntHashMap(1 << 10);
+        var backward = new IntIntHashMap(1 << 10);
+        var forwardFrontier = new int[] {state};
+        forward.putIfAbsent(state, entry(0, 0));
+        var backwardFrontier = new int[PackedState.CELL_COUNT];
+        for (var empty = 0; empty < PackedState.CELL_COUNT; empty++) {
+            backwardFrontier[empty] = PackedState.getGoal(empty);
+            backward.putIfAbsent(backwardFrontier[empty], entry(0, 0));
+        }
+        var forwardDepth = 0;
+        var backwardDepth = 0;
+        while (true) {
+            var meeting = new int[] {-1, Integer.MAX_VALUE};
+            if (forwardFrontier.length <= backwardFrontier.length) {
+                forwardFrontier = expand(forwardFrontier, ++forwardDepth, forward, backward, true, meeting);
+            } else {
+                backwardFrontier = expand(backwardFrontier, ++backwardDepth, backward, forward, false, meeting);
+            }
+            if (meeting[0] != -1) {
+                return path(meeting[0], forward, backward);
+            }
+        }
+    }
+
+    private static int entry(int depth, int direction) {
+        return depth << 2 | direction;
+    }
+
+    private static int depth(int entry) {
+        return entry >>> 2;
+    }
+
+    private static Direction direction(int entry) {
+        return DIRECTIONS[entry & 3];
+    }
+
+    /**
+     * Expands a whole level of one of the searches, and records the meeting
+     * state with the shortest combined depth in {@code meeting}.
+     */
+    private static int[] expand(int[] frontier, int depth, IntIntHashMap visited, IntIntHashMap other,
+                                boolean isForward, int[] meeting) {
+        var next = new int[frontier.length * 3];
+        var size = 0;
+        for (var state : frontier) {
+            for (var direction : DIRECTIONS) {
+                var neighbor = isForward ? PackedState.move(state, direction) : PackedState.unmove(state, direction);
+                if (neighbor == PackedState.NO_MOVE || !visited.putIfAbsent(neighbor, entry(depth, direction.ordinal()))) {
+                    continue;
+                }
+                var otherEntry = other.get(neighbor);
+                if (otherEntry != IntIntHashMap.NO_VALUE && depth + depth(otherEntry) < meeting[1]) {
+                    meeting[0] = neighbor;
+                    meeting[1] = depth + depth(otherEntry);
+                }
+                if (size == next.length) {
+                    next = Arrays.copyOf(next, size * 2);
+                }
+                next[size++] = neighbor;
+            }
+        }
+        return Arrays.copyOf(next, size);
+    }
+
+    private static List<Direction> path(int meeting, IntIntHashMap forward, IntIntHashMap backward) {
+        var path = new ArrayList<Direction>();
+        for (int state = meeting, entry = forward.get(state); depth(entry) > 0; entry = forward.get(state)) {
+            path.add(direction(entry));
+            state = PackedState.unmove(state, direction(entry));
+        }
+        Collections.reverse(path);
+        for (int state = meeting, entry = backward.get(state); depth(entry) > 0; entry = backward.get(state)) {
+            path.add(direction(entry));
+            state = PackedState.move(state, direction(entry));
+        }
+        return path;
+    }
+
+}
@@ -0,0 +1,29 @@
+package rollingcubes.solver;
+
+/**
+ * Represents the difficulty levels of the puzzle.
+ */
+public enum Difficulty {
+
+    EASY(10),
+    MEDIUM(20),
+    HARD(30);
+
+    private final int distance;
+
+    Difficulty(int distance) {
+        this.distance = distance;
+    }
+
+    /**
+     * {@return the length of the shortest solution of the start positions}
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    public String toString() {
+        return name().charAt(0) + name().substring(1).toLowerCase();
+    }
+
+}
@@ -0,0 +1,216 @@
+package rollingcubes.solver;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.tinylog.Logger;
+
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+import rollingcubes.state.Symmetry;
+
+/**
+ * Table that stores the length of the shortest solution of each state of
+ * the puzzle. The table is computed with a parallel, level-synchronous
+ * breadth-first search from the goal states, that keeps the frontier of each
+ * level in a bitset over the dense indices of the states. Since each move
+ * can be undone by rolling the cube back, the distance of a state from the
+ * goal states equals the length of its shortest solution.
+ *
+ * <p>The distance is invariant under the symmetries of the tray, thus only
+ * the canonical representatives of the states (see
+ * {@link Symmetry#canonical(int)}) are expanded and stored. The table keeps
+ * them in ascending order of their dense indices, and looks them up with a
+ * binary search.</p>
+ */
+public class DistanceTable {
+
+    /**
+     * The distance stored for states from which the goal states can not be
+     * reached.
+     */
+    public static final int UNREACHABLE = -1;
+
+    private static final VarHandle BITS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * The dense indices of the canonical states in ascending order.
+     */
+    private final int[] indices;
+
+    /**
+     * The distances of the canonical states.
+     */
+    private final byte[] distances;
+
+    /**
+     * The number of solvable states for each distance.
+     */
+    private final long[] histogram;
+
+    private DistanceTable(int[] indices, byte[] distances, long[] histogram) {
+        this.indices = indices;
+        this.distances = distances;
+        this.histogram = histogram;
+    }
+
+    /**
+     * {@return the shared instance of the table, that is computed on first
+     * use}
+     */
+    public static DistanceTable getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+
+        private static final DistanceTable INSTANCE = compute();
+
+    }
+
+    /**
+     * Computes the distance table.
+     *
+     * @return the distance table computed
+     */
+    public static DistanceTable compute() {
+        var start = System.nanoTime();
+        var words = (PackedState.STATE_COUNT + 63) >>> 6;
+        var visited = new long[words];
+        var frontier = new long[words];
+        for (var empty = 0; empty < PackedState.CELL_COUNT; empty++) {
+            var index = PackedState.toIndex(Symmetry.canonical(PackedState.getGoal(empty)));
+            visited[index >>> 6] |= 1L << index;
+            frontier[index >>> 6] |= 1L << index;
+        }
+        var levels = new ArrayList<int[]>();
+        var level = toIndices(frontier);
+        while (level.length > 0) {
+            levels.add(level);
+            var current = frontier;
+            var next = new long[words];
+            IntStream.range(0, words).parallel().forEach(word -> {
+                for (var bits = current[word]; bits != 0; bits &= bits - 1) {
+                    var state = PackedState.fromIndex((word << 6) + Long.numberOfTrailingZeros(bits));
+                    for (var direction : DIRECTIONS) {
+                        var neighbor = PackedState.move(state, direction);
+                        if (neighbor != PackedState.NO_MOVE) {
+                            var index = PackedState.toIndex(Symmetry.canonical(neighbor));
+                            var mask = 1L << index;
+                            if ((visited[index >>> 6] & mask) == 0
+                                    && ((long) BITS.getAndBitwiseOr(visited, index >>> 6, mask) & mask) == 0) {
+                                BITS.getAndBitwiseOr(next, index >>> 6, mask);
+                            }
+                        }
+                    }
+                }
+            });
+            frontier = next;
+            level = toIndices(frontier);
+        }
+        var table = build(levels);
+        Logger.debug("Distance table of {} canonical states computed in {} ms", table.indices.length,
+                (System.nanoTime() - start) / 1_000_000);
+        return table;
+    }
+
+    private static int[] toIndices(long[] bitset) {
+        var count = Arrays.stream(bitset).map(Long::bitCount).sum();
+        var result = new int[(int) count];
+        var i = 0;
+        for (var word = 0; word < bitset.length; word++) {
+            for (var bits = bitset[word]; bits != 0; bits &= bits - 1) {
+                result[i++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return result;
+    }
+
+    private static DistanceTable build(ArrayList<int[]> levels) {
+        var count = levels.stream().mapToInt(level -> level.length).sum();
+        var entries = new long[count];
+        var histogram = new long[levels.size()];
+        var i = 0;
+        for (var distance = 0; distance < levels.size(); distance++) {
+            for (var index : levels.get(distance)) {
+                entries[i++] = (long) index << 8 | distance;
+                histogram[distance] += Symmetry.orbitSize(PackedState.fromIndex(index));
+            }
+        }
+        Arrays.parallelSort(entries);
+        var indices = new int[count];
+        var distances = new byte[count];
+        for (i = 0; i < count; i++) {
+            indices[i] = (int) (entries[i] >>> 8);
+            distances[i] = (byte) entries[i];
+        }
+        return new DistanceTable(indices, distances, histogram);
+    }
+
+    /**
+     * {@return the length of the shortest solution of the packed state
+     * specified, or {@link #UNREACHABLE} if the state can not be solved}
+     *
+     * @param state a packed state
+     */
+    public int getDistance(int state) {
+        var i = Arrays.binarySearch(indices, PackedState.toIndex(Symmetry.canonical(state)));
+        return i < 0 ? UNREACHABLE : distances[i];
+    }
+
+    /**
+     * {@return the number of canonical states stored in the table}
+     */
+    public int getCanonicalCount() {
+        return indices.length;
+    }
+
+    /**
+     * {@return the canonical packed state at the position specified}
+     *
+     * @param i a position between {@code 0} and
+     *          {@link #getCanonicalCount()}{@code - 1}
+     */
+    public int getCanonicalState(int i) {
+        return PackedState.fromIndex(indices[i]);
+    }
+
+    /**
+     * {@return the distance of the canonical state at the position
+     * specified}
+     *
+     * @param i a position between {@code 0} and
+     *          {@link #getCanonicalCount()}{@code - 1}
+     */
+    public int getCanonicalDistance(int i) {
+        return distances[i];
+    }
+
+    /**
+     * {@return the number of solvable states for each distance}
+     */
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * {@return the maximum length of the shortest solutions of the solvable
+     * states}
+     */
+    public int getMaxDistance() {
+        return histogram.length - 1;
+    }
+
+    /**
+     * {@return the number of solvable states}
+     */
+    public long getSolvableCount() {
+        return Arrays.stream(histogram).sum();
+    }
+
+}
@@ -0,0 +1,285 @@
+package rollingcubes.solver;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+import rollingcubes.state.RollingCubesState;
+import rollingcubes.state.Symmetry;
+
+/**
+ * Service that finds shortest solutions of states of the puzzle. When a
+ * {@link DistanceTable} is available, a solution is obtained by repeatedly
+ * moving to a neighbor that is one step closer to the goal states, otherwise
+ * the states are solved by a {@link BidirectionalSolver}.
+ *
+ * <p>The solutions are memoized in a bounded cache with least recently used
+ * eviction. The cache is keyed by the canonical representatives of the
+ * states (see {@link Symmetry#canonical(int)}), and a cached solution is
+ * mapped to the state requested through the symmetry relating the two, thus
+ * a single entry serves all the symmetric images of a state. Instances of
+ * this class are thread-safe.</p>
+ *
+ * <p>With a distance table, solutions can also be iterated lazily by
+ * {@link #solutionIterator(int)}, that finds each move on demand, thus the
+ * first move is available immediately regardless of the length of the
+ * solution.</p>
+ */
+public class Solver {
+
+    /**
+     * The capacity of the cache of the shared instance.
+     */
+    public static final int DEFAULT_CACHE_CAPACITY = 10_000;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final DistanceTable table;
+
+    private final BidirectionalSolver bidirectionalSolver = new BidirectionalSolver();
+
+    private final Map<Integer, Direction[]> cache;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a {@code Solver} object that solves the states with a
+     * {@link BidirectionalSolver}.
+     *
+     * @param cacheCapacity the maximum number of solutions cached
+     * @throws IllegalArgumentException if {@code cacheCapacity} is negative
+     */
+    public Solver(int cacheCapacity) {
+        this(null, cacheCapacity);
+    }
+
+    /**
+     * Creates a {@code Solver} object.
+     *
+     * @param table the distance table used to solve the states, or
+     *              {@code null} to solve the states with a
+     *              {@link BidirectionalSolver}
+     * @param cacheCapacity the maximum number of solutions cached
+     * @throws IllegalArgumentException if {@code cacheCapacity} is negative
+     */
+    public Solver(DistanceTable table, int cacheCapacity) {
+        if (cacheCapacity < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.table = table;
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Direction[]> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+    }
+
+    /**
+     * {@return the shared instance of the solver, that uses the shared
+     * instance of the distance table}
+     */
+    public static Solver getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+
+        private static final Solver INSTANCE = new Solver(DistanceTable.getInstance(), DEFAULT_CACHE_CAPACITY);
+
+    }
+
+    /**
+     * {@return the directions to which the cubes are rolled in a shortest
+     * solution of the state specified}
+     *
+     * @param state a state of the puzzle
+     */
+    public List<Direction> solve(RollingCubesState state) {
+        return solve(PackedState.pack(state));
+    }
+
+    /**
+     * {@return the directions to which the cubes are rolled in a shortest
+     * solution of the packed state specified}
+     *
+     * @param state a packed state
+     * @throws IllegalArgumentException if the state is not solvable
+     */
+    public List<Direction> solve(int state) {
+        if (!PackedState.isSolvable(state)) {
+            throw new IllegalArgumentException();
+        }
+        var canonical = Symmetry.canonical(state);
+        var symmetry = findSymmetry(state, canonical);
+        Direction[] solution;
+        synchronized (cache) {
+            solution = cache.get(canonical);
+        }
+        if (solution != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            solution = solveUncached(canonical);
+            synchronized (cache) {
+                cache.put(canonical, solution);
+            }
+        }
+        var inverse = Symmetry.inverse(symmetry);
+        var result = new Direction[solution.length];
+        for (var i = 0; i < solution.length; i++) {
+            result[i] = Symmetry.apply(solution[i], inverse);
+        }
+        return List.of(result);
+    }
+
+    /**
+     * Solves the packed states specified in parallel. Each distinct state is
+     * solved only once.
+     *
+     * @param states packed states
+     * @return the shortest solutions of the states in the order of the
+     * states
+     * @throws IllegalArgumentException if any of the states is not solvable
+     */
+    public List<List<Direction>> solveAll(int... states) {
+        var solutions = IntStream.of(states)
+                .distinct()
+                .parallel()
+                .boxed()
+                .collect(Collectors.toConcurrentMap(Function.identity(), this::solve));
+        return IntStream.of(states)
+                .mapToObj(solutions::get)
+                .toList();
+    }
+
+    /**
+     * {@return an iterator over the directions to which the cubes are rolled
+     * in a shortest solution of the state specified}
+     *
+     * @param state a state of the puzzle
+     */
+    public Iterator<Direction> solutionIterator(RollingCubesState state) {
+        return solutionIterator(PackedState.pack(state));
+    }
+
+    /**
+     * Returns an iterator over the directions to which the cubes are rolled
+     * in a shortest solution of the packed state specified. With a distance
+     * table, each move is found when it is requested, and the moves are the
+     * same as the ones returned by {@link #solve(int)}. Otherwise, the
+     * solution is found by {@link #solve(int)} before the iterator is
+     * returned.
+     *
+     * @param state a packed state
+     * @return an iterator over the moves of a shortest solution
+     * @throws IllegalArgumentException if the state is not solvable
+     */
+    public Iterator<Direction> solutionIterator(int state) {
+        if (table == null) {
+            return solve(state).iterator();
+        }
+        if (!PackedState.isSolvable(state)) {
+            throw new IllegalArgumentException();
+        }
+        var canonical = Symmetry.canonical(state);
+        var inverse = Symmetry.inverse(findSymmetry(state, canonical));
+        return new Iterator<>() {
+
+            // the moves are found from the canonical state, as by solve(int)
+            private int current = canonical;
+
+            private int distance = table.getDistance(canonical);
+
+            @Override
+            public boolean hasNext() {
+                return distance > 0;
+            }
+
+            @Override
+            public Direction next() {
+                if (distance <= 0) {
+                    throw new NoSuchElementException();
+                }
+                var direction = findStep(current, distance);
+                current = PackedState.move(current, direction);
+                distance--;
+                return Symmetry.apply(direction, inverse);
+            }
+
+        };
+    }
+
+    private static int findSymmetry(int state, int canonical) {
+        var symmetry = 0;
+        while (Symmetry.apply(state, symmetry) != canonical) {
+            symmetry++;
+        }
+        return symmetry;
+    }
+
+    private Direction[] solveUncached(int state) {
+        if (table == null) {
+            return bidirectionalSolver.solve(state).toArray(new Direction[0]);
+        }
+        var distance = table.getDistance(state);
+        var solution = new Direction[distance];
+        for (var i = 0; i < solution.length; i++, distance--) {
+            solution[i] = findStep(state, distance);
+            state = PackedState.move(state, solution[i]);
+        }
+        return solution;
+    }
+
+    /**
+     * {@return the first direction to which the state specified is moved to
+     * a neighbor one step closer to the goal states}
+     *
+     * @param state a packed state
+     * @param distance the distance of the state
+     */
+    private Direction findStep(int state, int distance) {
+        for (var direction : DIRECTIONS) {
+            var neighbor = PackedState.move(state, direction);
+            if (neighbor != PackedState.NO_MOVE && table.getDistance(neighbor) == distance - 1) {
+                return direction;
+            }
+        }
+        throw new IllegalStateException("No neighbor is closer to the goal states");
+    }
+
+    /**
+     * {@return the number of requests served from the cache}
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * {@return the number of requests that have not been served from the
+     * cache}
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * {@return the number of solutions cached}
+     */
+    public int getCacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package rollingcubes.solver;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+import rollingcubes.state.Symmetry;
+
+/**
+ * Generates random start positions with a given length of the shortest
+ * solution. The canonical states of the distance table are bucketed by their
+ * distance on construction. A start position is sampled by choosing a
+ * canonical state from a bucket and applying a random symmetry to it, where
+ * canonical states are accepted with a probability proportional to the size
+ * of their orbit, thus each state is sampled with the same probability in
+ * constant expected time.
+ */
+public class StartPositionGenerator {
+
+    private final DistanceTable table;
+
+    /**
+     * The positions of the canonical states of the distance table ordered by
+     * their distance.
+     */
+    private final int[] positions;
+
+    /**
+     * The position of the first state with each distance in
+     * {@link #positions}, followed by the length of the array.
+     */
+    private final int[] offsets;
+
+    /**
+     * Creates a {@code StartPositionGenerator} object.
+     *
+     * @param table the distance table of the states
+     */
+    public StartPositionGenerator(DistanceTable table) {
+        this.table = table;
+        var maxDistance = table.getMaxDistance();
+        offsets = new int[maxDistance + 2];
+        for (var i = 0; i < table.getCanonicalCount(); i++) {
+            offsets[table.getCanonicalDistance(i) + 1]++;
+        }
+        for (var distance = 0; distance <= maxDistance; distance++) {
+            offsets[distance + 1] += offsets[distance];
+        }
+        positions = new int[table.getCanonicalCount()];
+        var next = offsets.clone();
+        for (var i = 0; i < table.getCanonicalCount(); i++) {
+            positions[next[table.getCanonicalDistance(i)]++] = i;
+        }
+    }
+
+    /**
+     * {@return the shared instance of the generator, that is created on first
+     * use from the shared distance table}
+     */
+    public static StartPositionGenerator getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+
+        private static final StartPositionGenerator INSTANCE = new StartPositionGenerator(DistanceTable.getInstance());
+
+    }
+
+    /**
+     * {@return the maximum distance for which start positions can be
+     * generated}
+     */
+    public int getMaxDistance() {
+        return offsets.length - 2;
+    }
+
+    /**
+     * {@return a random packed state whose shortest solution has the length
+     * specified}
+     *
+     * @param distance the length of the shortest solution
+     * @throws IllegalArgumentException if there is no state with the
+     *         distance specified
+     */
+    public int next(int distance) {
+        return next(distance, ThreadLocalRandom.current());
+    }
+
+    /**
+     * {@return a random packed state whose shortest solution has the length
+     * specified}
+     *
+     * @param distance the length of the shortest solution
+     * @param random the random number generator to be used
+     * @throws IllegalArgumentException if there is no state with the
+     *         distance specified
+     */
+    public int next(int distance, RandomGenerator random) {
+        if (distance < 0 || distance > getMaxDistance()) {
+            throw new IllegalArgumentException();
+        }
+        int state;
+        do {
+            state = table.getCanonicalState(positions[random.nextInt(offsets[distance], offsets[distance + 1])]);
+        } while (random.nextInt(Symmetry.COUNT) >= Symmetry.orbitSize(state));
+        return Symmetry.apply(state, random.nextInt(Symmetry.COUNT));
+    }
+
+}
@@ -0,0 +1,58 @@
+package rollingcubes.solver;
+
+import rollingcubes.state.PackedState;
+import rollingcubes.state.RollingCubesState;
+import rollingcubes.state.Symmetry;
+
+/**
+ * Command line tool that reports the structure of the state space of the
+ * puzzle: the number of states at each distance from the goal states, the
+ * maximum length of the shortest solutions, the number of unsolvable
+ * configurations, and the difficulty of the configurations for each
+ * position of the empty space.
+ */
+public class StateSpaceReport {
+
+    public static void main(String[] args) {
+        var start = System.nanoTime();
+        var table = DistanceTable.compute();
+        var elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("States: %d (computed in %.2f s)%n", PackedState.STATE_COUNT, elapsed);
+        System.out.printf("Solvable states: %d (%d up to symmetry)%n", table.getSolvableCount(), table.getCanonicalCount());
+        System.out.printf("Unsolvable states: %d%n", PackedState.STATE_COUNT - table.getSolvableCount());
+        System.out.printf("Maximum optimal distance: %d%n", table.getMaxDistance());
+        System.out.printf("Distance of the initial configuration: %d%n", table.getDistance(PackedState.pack(RollingCubesState.INITIAL)));
+        System.out.printf("Distance of the near-goal configuration: %d%n", table.getDistance(PackedState.pack(RollingCubesState.NEAR_GOAL)));
+
+        System.out.println();
+        System.out.println("Distance histogram:");
+        var histogram = table.getHistogram();
+        for (var distance = 0; distance < histogram.length; distance++) {
+            System.out.printf("%4d %10d%n", distance, histogram[distance]);
+        }
+
+        System.out.println();
+        System.out.println("Difficulty by position of the empty space:");
+        System.out.println("  row col     states   mean  max");
+        var counts = new long[PackedState.CELL_COUNT];
+        var sums = new long[PackedState.CELL_COUNT];
+        var maxima = new int[PackedState.CELL_COUNT];
+        var orbit = new int[Symmetry.COUNT];
+        for (var i = 0; i < table.getCanonicalCount(); i++) {
+            var distance = table.getCanonicalDistance(i);
+            var size = Symmetry.orbit(table.getCanonicalState(i), orbit);
+            for (var j = 0; j < size; j++) {
+                var empty = PackedState.getEmptyIndex(orbit[j]);
+                counts[empty]++;
+                sums[empty] += distance;
+                maxima[empty] = Math.max(maxima[empty], distance);
+            }
+        }
+        for (var empty = 0; empty < PackedState.CELL_COUNT; empty++) {
+            System.out.printf("%5d %3d %10d %6.2f %4d%n", empty / RollingCubesState.TRAY_SIZE,
+                    empty % RollingCubesState.TRAY_SIZE, counts[empty], (double) sums[empty] / counts[empty], maxima[empty]);
+        }
+    }
+
+}
@@ -0,0 +1,5 @@
+/**
+ * Provides classes for solving the rolling cubes puzzle and analyzing its
+ * state space.
+ */
+package rollingcubes.solver;
@@ -13,6 +13,11 @@ public enum Cube {
     CUBE5,
     CUBE6;
 
+    /**
+     * Cached copy of {@link #values()}, which clones the array on each call.
+     */
+    private static final Cube[] VALUES = values();
+
     /**
      * The array defining the transitions between orientations when a cube is
      * rolled. Rows correspond to cube orientations, columns correspond to
@@ -28,6 +33,41 @@ public enum Cube {
             {2, 5, 3, 4}
     };
 
+    /**
+     * The inverse of {@link #T}, that defines the orientation a cube had
+     * before it was rolled. Rows correspond to cube orientations, columns
+     * correspond to directions.
+     */
+    private static final int[][] T_INVERSE = new int[T.length][T[0].length];
+
+    private static final int DIRECTION_BITS = 2;
+
+    /**
+     * The instances resulting from rolling the cubes, indexed by
+     * {@code ordinal << 2 | direction.ordinal()}.
+     */
+    private static final Cube[] ROLLS = new Cube[T.length << DIRECTION_BITS];
+
+    /**
+     * The instances before rolling the cubes, indexed by
+     * {@code ordinal << 2 | direction.ordinal()}.
+     */
+    private static final Cube[] ROLLS_BACK = new Cube[T.length << DIRECTION_BITS];
+
+    static {
+        for (var i = 1; i < T.length; i++) {
+            for (var j = 0; j < T[i].length; j++) {
+                T_INVERSE[T[i][j]][j] = i;
+            }
+        }
+        for (var i = 1; i < T.length; i++) {
+            for (var j = 0; j < T[i].length; j++) {
+                ROLLS[i << DIRECTION_BITS | j] = VALUES[T[i][j]];
+                ROLLS_BACK[i << DIRECTION_BITS | j] = VALUES[T_INVERSE[i][j]];
+            }
+        }
+    }
+
     /**
      * Returns the instance represented by the value specified.
      *
@@ -37,10 +77,10 @@ public enum Cube {
      * represent an instance
      */
     public static Cube of(int value) {
-        if (value < 0 || value >= values().length) {
+        if (value < 0 || value >= VALUES.length) {
             throw new IllegalArgumentException();
         }
-        return values()[value];
+        return VALUES[value];
     }
 
     /**
@@ -62,7 +102,23 @@ public enum Cube {
         if (this == EMPTY) {
             throw new UnsupportedOperationException();
         }
-        return values()[T[ordinal()][direction.ordinal()]];
+        return ROLLS[ordinal() << DIRECTION_BITS | direction.ordinal()];
+    }
+
+    /**
+     * Rolls the cube back from the direction specified, that is the inverse
+     * of {@link #rollTo(Direction)}.
+     *
+     * @param direction the direction to which the cube has been rolled
+     * @return the cube before it was rolled to the direction specified
+     * @throws UnsupportedOperationException if the method is invoked on the
+     *         {@link #EMPTY} instance
+     */
+    public Cube rollBack(Direction direction) {
+        if (this == EMPTY) {
+            throw new UnsupportedOperationException();
+        }
+        return ROLLS_BACK[ordinal() << DIRECTION_BITS | direction.ordinal()];
     }
 
     public String toString() {
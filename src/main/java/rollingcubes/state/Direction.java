@@ -10,6 +10,24 @@ public enum Direction {
     DOWN(1, 0),
     LEFT(0, -1);
 
+    /**
+     * Cached copy of {@link #values()}, which clones the array on each call.
+     */
+    private static final Direction[] VALUES = values();
+
+    /**
+     * The directions indexed by {@code (rowChange + 1) * 3 + colChange + 1},
+     * with {@code null} elements for coordinate changes that do not
+     * correspond to a direction.
+     */
+    private static final Direction[] BY_CHANGE = new Direction[9];
+
+    static {
+        for (var direction : VALUES) {
+            BY_CHANGE[(direction.rowChange + 1) * 3 + direction.colChange + 1] = direction;
+        }
+    }
+
     private final int rowChange;
     private final int colChange;
 
@@ -42,12 +60,14 @@ public enum Direction {
      * @param colChange the change in the column coordinate
      */
     public static Direction of(int rowChange, int colChange) {
-        for (var direction : values()) {
-            if (direction.rowChange == rowChange && direction.colChange == colChange) {
-                return direction;
-            }
+        if (rowChange < -1 || rowChange > 1 || colChange < -1 || colChange > 1) {
+            throw new IllegalArgumentException();
+        }
+        var direction = BY_CHANGE[(rowChange + 1) * 3 + colChange + 1];
+        if (direction == null) {
+            throw new IllegalArgumentException();
         }
-        throw new IllegalArgumentException();
+        return direction;
     }
 
     /**
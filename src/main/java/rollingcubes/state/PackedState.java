@@ -0,0 +1,329 @@
+package rollingcubes.state;
+
+/**
+ * Provides operations on the packed representation of the states of the
+ * puzzle. A packed state is a non-negative {@code int} that stores the value
+ * of each position of the tray in 3 bits, in row-major order starting from
+ * the least significant bits, and the index of the empty space in the
+ * following 4 bits.
+ *
+ * <p>Packed states can also be mapped to dense indices between {@code 0}
+ * and {@link #STATE_COUNT}{@code - 1}, that is used to index tables that
+ * store a value for each state.</p>
+ */
+public final class PackedState {
+
+    /**
+     * The number of positions in the tray.
+     */
+    public static final int CELL_COUNT = RollingCubesState.TRAY_SIZE * RollingCubesState.TRAY_SIZE;
+
+    /**
+     * The number of possible orientations of a cube.
+     */
+    public static final int ORIENTATION_COUNT = Cube.values().length - 1;
+
+    /**
+     * The number of possible configurations of the cubes for a given
+     * position of the empty space.
+     */
+    public static final int CUBE_CONFIGURATION_COUNT = power(ORIENTATION_COUNT, CELL_COUNT - 1);
+
+    /**
+     * The number of states of the puzzle.
+     */
+    public static final int STATE_COUNT = CELL_COUNT * CUBE_CONFIGURATION_COUNT;
+
+    /**
+     * The value returned by {@link #move(int, Direction)} when the move is
+     * not possible.
+     */
+    public static final int NO_MOVE = -1;
+
+    private static final int BITS_PER_CELL = 3;
+
+    private static final int CELL_MASK = (1 << BITS_PER_CELL) - 1;
+
+    private static final int EMPTY_SHIFT = CELL_COUNT * BITS_PER_CELL;
+
+    private static final int CELLS_MASK = (1 << EMPTY_SHIFT) - 1;
+
+    /**
+     * The goal states indexed by the position of the empty space.
+     */
+    private static final int[] GOALS = new int[CELL_COUNT];
+
+    private static final int DIRECTION_BITS = 2;
+
+    /**
+     * The values of the cubes after rolling, indexed by
+     * {@code value << 2 | direction.ordinal()}.
+     */
+    private static final int[] ROLLS = new int[(CELL_MASK + 1) << DIRECTION_BITS];
+
+    /**
+     * The values of the cubes before rolling, indexed by
+     * {@code value << 2 | direction.ordinal()}.
+     */
+    private static final int[] ROLLS_BACK = new int[(CELL_MASK + 1) << DIRECTION_BITS];
+
+    /**
+     * The positions of the cubes that can be rolled to the empty space,
+     * indexed by {@code emptyIndex << 2 | direction.ordinal()}, or
+     * {@link #NO_MOVE} if there is no such cube.
+     */
+    private static final int[] SOURCES = new int[CELL_COUNT << DIRECTION_BITS];
+
+    /**
+     * The positions to which the cubes can have been rolled from the empty
+     * space, indexed by {@code emptyIndex << 2 | direction.ordinal()}, or
+     * {@link #NO_MOVE} if there is no such position.
+     */
+    private static final int[] TARGETS = new int[CELL_COUNT << DIRECTION_BITS];
+
+    static {
+        for (var cube : Cube.values()) {
+            if (cube != Cube.EMPTY) {
+                for (var direction : Direction.values()) {
+                    ROLLS[cube.getValue() << DIRECTION_BITS | direction.ordinal()] = cube.rollTo(direction).getValue();
+                    ROLLS_BACK[cube.getValue() << DIRECTION_BITS | direction.ordinal()] = cube.rollBack(direction).getValue();
+                }
+            }
+        }
+        for (var empty = 0; empty < CELL_COUNT; empty++) {
+            for (var direction : Direction.values()) {
+                var row = empty / RollingCubesState.TRAY_SIZE;
+                var col = empty % RollingCubesState.TRAY_SIZE;
+                SOURCES[empty << DIRECTION_BITS | direction.ordinal()] =
+                        toCellIndex(row - direction.getRowChange(), col - direction.getColChange());
+                TARGETS[empty << DIRECTION_BITS | direction.ordinal()] =
+                        toCellIndex(row + direction.getRowChange(), col + direction.getColChange());
+            }
+        }
+        for (var empty = 0; empty < CELL_COUNT; empty++) {
+            var state = empty << EMPTY_SHIFT;
+            for (var i = 0; i < CELL_COUNT; i++) {
+                if (i != empty) {
+                    state |= Cube.CUBE6.getValue() << (i * BITS_PER_CELL);
+                }
+            }
+            GOALS[empty] = state;
+        }
+    }
+
+    private PackedState() {
+    }
+
+    private static int toCellIndex(int row, int col) {
+        if (row < 0 || row >= RollingCubesState.TRAY_SIZE || col < 0 || col >= RollingCubesState.TRAY_SIZE) {
+            return NO_MOVE;
+        }
+        return row * RollingCubesState.TRAY_SIZE + col;
+    }
+
+    private static int power(int base, int exponent) {
+        var result = 1;
+        for (var i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+
+    /**
+     * {@return the packed representation of the configuration specified}
+     *
+     * @param a an array of size {@value RollingCubesState#TRAY_SIZE}&#xd7;{@value RollingCubesState#TRAY_SIZE}
+     *          representing a valid configuration of the tray
+     */
+    public static int pack(int[][] a) {
+        var state = 0;
+        for (var i = 0; i < CELL_COUNT; i++) {
+            var value = a[i / RollingCubesState.TRAY_SIZE][i % RollingCubesState.TRAY_SIZE];
+            if (value == Cube.EMPTY.getValue()) {
+                state |= i << EMPTY_SHIFT;
+            }
+            state |= value << (i * BITS_PER_CELL);
+        }
+        return state;
+    }
+
+    /**
+     * {@return the packed representation of the state specified}
+     *
+     * @param state a state of the puzzle
+     */
+    public static int pack(RollingCubesState state) {
+        var packed = (state.getEmptyRow() * RollingCubesState.TRAY_SIZE + state.getEmptyCol()) << EMPTY_SHIFT;
+        for (var i = 0; i < CELL_COUNT; i++) {
+            packed |= state.getCube(i / RollingCubesState.TRAY_SIZE, i % RollingCubesState.TRAY_SIZE).getValue() << (i * BITS_PER_CELL);
+        }
+        return packed;
+    }
+
+    /**
+     * Returns whether the {@code int} value specified is a packed state from
+     * which the puzzle can be solved. As with
+     * {@link RollingCubesState#isSolvable(int[][])}, every valid state is
+     * solvable, thus the check only validates the encoding.
+     *
+     * @param state an {@code int} value
+     * @return {@code true} if the value is a valid and solvable packed state,
+     * {@code false} otherwise
+     */
+    public static boolean isSolvable(int state) {
+        if (state < 0 || getEmptyIndex(state) >= CELL_COUNT) {
+            return false;
+        }
+        var empty = getEmptyIndex(state);
+        for (var i = 0; i < CELL_COUNT; i++) {
+            var value = getValue(state, i);
+            if ((i == empty) != (value == Cube.EMPTY.getValue()) || value > ORIENTATION_COUNT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@return the array representation of the packed state specified}
+     *
+     * @param state a packed state
+     */
+    public static int[][] toArray(int state) {
+        var a = new int[RollingCubesState.TRAY_SIZE][RollingCubesState.TRAY_SIZE];
+        for (var i = 0; i < CELL_COUNT; i++) {
+            a[i / RollingCubesState.TRAY_SIZE][i % RollingCubesState.TRAY_SIZE] = getValue(state, i);
+        }
+        return a;
+    }
+
+    /**
+     * {@return the value of the cube at the position specified}
+     *
+     * @param state a packed state
+     * @param index the row-major index of a position
+     */
+    public static int getValue(int state, int index) {
+        return (state >>> (index * BITS_PER_CELL)) & CELL_MASK;
+    }
+
+    /**
+     * {@return the row-major index of the empty space}
+     *
+     * @param state a packed state
+     */
+    public static int getEmptyIndex(int state) {
+        return state >>> EMPTY_SHIFT;
+    }
+
+    /**
+     * {@return the packed goal state with the empty space at the position
+     * specified}
+     *
+     * @param emptyIndex the row-major index of the empty space
+     */
+    public static int getGoal(int emptyIndex) {
+        return GOALS[emptyIndex];
+    }
+
+    /**
+     * {@return whether the packed state specified is a goal state}
+     *
+     * @param state a packed state
+     */
+    public static boolean isSolved(int state) {
+        return state == GOALS[getEmptyIndex(state)];
+    }
+
+    /**
+     * Rolls the cube next to the empty space to the direction specified.
+     *
+     * @param state a packed state
+     * @param direction the direction to which the cube is rolled
+     * @return the resulting packed state, or {@link #NO_MOVE} if there is no
+     * cube that can be rolled to the empty space in the direction specified
+     */
+    public static int move(int state, Direction direction) {
+        var empty = getEmptyIndex(state);
+        var from = SOURCES[empty << DIRECTION_BITS | direction.ordinal()];
+        if (from == NO_MOVE) {
+            return NO_MOVE;
+        }
+        var cube = ROLLS[getValue(state, from) << DIRECTION_BITS | direction.ordinal()];
+        var cells = (state & CELLS_MASK) & ~(CELL_MASK << (from * BITS_PER_CELL));
+        return cells | (cube << (empty * BITS_PER_CELL)) | (from << EMPTY_SHIFT);
+    }
+
+    /**
+     * Undoes a move, that is the inverse of {@link #move(int, Direction)}.
+     *
+     * @param state a packed state
+     * @param direction the direction to which the cube has been rolled to
+     *                  reach the state specified
+     * @return the packed state before the move, or {@link #NO_MOVE} if there
+     * is no cube that can have been rolled to the direction specified
+     */
+    public static int unmove(int state, Direction direction) {
+        var empty = getEmptyIndex(state);
+        var to = TARGETS[empty << DIRECTION_BITS | direction.ordinal()];
+        if (to == NO_MOVE) {
+            return NO_MOVE;
+        }
+        var cube = ROLLS_BACK[getValue(state, to) << DIRECTION_BITS | direction.ordinal()];
+        var cells = (state & CELLS_MASK) & ~(CELL_MASK << (to * BITS_PER_CELL));
+        return cells | (cube << (empty * BITS_PER_CELL)) | (to << EMPTY_SHIFT);
+    }
+
+    /**
+     * {@return the dense index of the packed state specified}
+     *
+     * @param state a packed state
+     */
+    public static int toIndex(int state) {
+        var empty = getEmptyIndex(state);
+        var index = 0;
+        for (var i = 0; i < CELL_COUNT; i++) {
+            if (i != empty) {
+                index = index * ORIENTATION_COUNT + getValue(state, i) - 1;
+            }
+        }
+        return empty * CUBE_CONFIGURATION_COUNT + index;
+    }
+
+    /**
+     * {@return the packed state with the dense index specified}
+     *
+     * @param index a dense index between {@code 0} and
+     *              {@link #STATE_COUNT}{@code - 1}
+     */
+    public static int fromIndex(int index) {
+        var empty = index / CUBE_CONFIGURATION_COUNT;
+        var rest = index % CUBE_CONFIGURATION_COUNT;
+        var state = empty << EMPTY_SHIFT;
+        for (var i = CELL_COUNT - 1; i >= 0; i--) {
+            if (i != empty) {
+                state |= (rest % ORIENTATION_COUNT + 1) << (i * BITS_PER_CELL);
+                rest /= ORIENTATION_COUNT;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * {@return a string representation of the packed state specified in the
+     * format used by {@link RollingCubesState#toString()}}
+     *
+     * @param state a packed state
+     */
+    public static String toString(int state) {
+        var sb = new StringBuilder();
+        for (var i = 0; i < CELL_COUNT; i++) {
+            sb.append(getValue(state, i)).append(' ');
+            if (i % RollingCubesState.TRAY_SIZE == RollingCubesState.TRAY_SIZE - 1) {
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+}
@@ -58,6 +58,11 @@ public class RollingCubesState {
      */
     private int emptyCol;
 
+    /**
+     * The listeners notified when a cube is rolled.
+     */
+    private final List<RollListener> rollListeners = new ArrayList<>();
+
     /**
      * Creates a {@code RollingCubesState} object representing the (original)
      * initial state of the puzzle.
@@ -73,10 +78,10 @@ public class RollingCubesState {
      * @param a an array of size {@value TRAY_SIZE}&#xd7;{@value TRAY_SIZE}
      *          representing the initial configuration of the tray
      * @throws IllegalArgumentException if the array does not represent a valid
-     *         configuration of the tray
+     *         and solvable configuration of the tray
      */
     public RollingCubesState(int[][] a) {
-        if (!isValidTray(a)) {
+        if (!isSolvable(a)) {
             throw new IllegalArgumentException();
         }
         initTray(a);
@@ -94,7 +99,22 @@ public class RollingCubesState {
         );
     }
 
-    private boolean isValidTray(int[][] a) {
+    /**
+     * Returns whether the array specified represents a configuration of the
+     * tray from which the puzzle can be solved. Every valid configuration is
+     * solvable, since each of the {@value PackedState#CELL_COUNT}&#xd7;6<sup>8</sup>
+     * configurations can be reached from the goal states, as verified by the
+     * distance table. Thus the check takes constant time.
+     *
+     * @param a an array representing a configuration of the tray
+     * @return {@code true} if the array represents a valid and solvable
+     * configuration of the tray, {@code false} otherwise
+     */
+    public static boolean isSolvable(int[][] a) {
+        return isValidTray(a);
+    }
+
+    private static boolean isValidTray(int[][] a) {
         if (a == null || a.length != TRAY_SIZE) {
             return false;
         }
@@ -237,11 +257,38 @@ public class RollingCubesState {
      */
     public void rollToEmptySpace(int row, int col) {
         var direction = getRollDirection(row, col);
-        Logger.trace("Cube at ({},{}) is rolled to {}", row, col, direction);
+        if (Logger.isTraceEnabled()) {
+            Logger.trace("Cube at ({},{}) is rolled to {}", row, col, direction);
+        }
         tray[emptyRow][emptyCol].set(tray[row][col].get().rollTo(direction));
         tray[row][col].set(Cube.EMPTY);
+        var toRow = emptyRow;
+        var toCol = emptyCol;
         emptyRow = row;
         emptyCol = col;
+        for (var i = 0; i < rollListeners.size(); i++) {
+            rollListeners.get(i).cubeRolled(row, col, toRow, toCol);
+        }
+    }
+
+    /**
+     * Registers a listener that is notified each time a cube is rolled to the
+     * empty space.
+     *
+     * @param listener the listener to be registered
+     */
+    public void addRollListener(RollListener listener) {
+        rollListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener previously registered with
+     * {@link #addRollListener(RollListener)}.
+     *
+     * @param listener the listener to be removed
+     */
+    public void removeRollListener(RollListener listener) {
+        rollListeners.remove(listener);
     }
 
     /**
@@ -273,6 +320,25 @@ public class RollingCubesState {
         return sb.toString();
     }
 
+    /**
+     * Listener that is notified when a cube is rolled to the empty space. Only
+     * the two positions affected by the move are reported.
+     */
+    @FunctionalInterface
+    public interface RollListener {
+
+        /**
+         * Invoked after a cube has been rolled to the empty space.
+         *
+         * @param fromRow the row the cube was rolled from, that is now empty
+         * @param fromCol the column the cube was rolled from, that is now empty
+         * @param toRow the row the cube was rolled to
+         * @param toCol the column the cube was rolled to
+         */
+        void cubeRolled(int fromRow, int fromCol, int toRow, int toCol);
+
+    }
+
     /**
      * Represents a position in the tray.
      */
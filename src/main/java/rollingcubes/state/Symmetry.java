@@ -0,0 +1,253 @@
+package rollingcubes.state;
+
+/**
+ * Provides the geometric symmetries of the tray acting on packed states.
+ * Each of the 8 symmetries of the square permutes the positions of the tray
+ * and the directions, and maps the orientations of the cubes through a
+ * relabeling of the values that is compatible with {@link Cube#rollTo}.
+ * Applying a symmetry to a state and to a move yields the image of the
+ * resulting state, and the goal states are mapped to goal states, thus the
+ * length of the shortest solution is invariant under the symmetries.
+ *
+ * <p>The action of the symmetries is precomputed in lookup tables, such
+ * that transforming a packed state takes a few array loads.</p>
+ */
+public final class Symmetry {
+
+    /**
+     * The number of symmetries, the first one is the identity.
+     */
+    public static final int COUNT = 8;
+
+    /**
+     * The transformations of the centered coordinates {@code (row, col)} of
+     * the symmetries in the form {@code {a, b, c, d}}, meaning
+     * {@code (row, col) -> (a * row + b * col, c * row + d * col)}.
+     */
+    private static final int[][] MATRICES = {
+            {1, 0, 0, 1},
+            {0, -1, 1, 0},
+            {-1, 0, 0, -1},
+            {0, 1, -1, 0},
+            {-1, 0, 0, 1},
+            {1, 0, 0, -1},
+            {0, 1, 1, 0},
+            {0, -1, -1, 0}
+    };
+
+    private static final int CHUNK_BITS = 9;
+
+    private static final int CHUNK_COUNT = 3;
+
+    private static final int CELLS_PER_CHUNK = PackedState.CELL_COUNT / CHUNK_COUNT;
+
+    /**
+     * The images of the positions, indexed by the symmetry and the row-major
+     * index of the position.
+     */
+    private static final int[][] CELLS = new int[COUNT][PackedState.CELL_COUNT];
+
+    /**
+     * The images of the directions, indexed by the symmetry and the ordinal
+     * of the direction.
+     */
+    private static final Direction[][] DIRECTIONS = new Direction[COUNT][];
+
+    /**
+     * The images of the values of the positions, indexed by the symmetry and
+     * the value.
+     */
+    private static final int[][] VALUES = new int[COUNT][];
+
+    /**
+     * The images of 3 consecutive positions of packed states, indexed by the
+     * symmetry, the chunk and the 9 bits of the chunk.
+     */
+    private static final int[][][] CHUNKS = new int[COUNT][CHUNK_COUNT][1 << CHUNK_BITS];
+
+    /**
+     * The inverses of the symmetries.
+     */
+    private static final int[] INVERSES = new int[COUNT];
+
+    static {
+        var size = RollingCubesState.TRAY_SIZE;
+        for (var g = 0; g < COUNT; g++) {
+            var m = MATRICES[g];
+            for (var i = 0; i < PackedState.CELL_COUNT; i++) {
+                var row = i / size - 1;
+                var col = i % size - 1;
+                CELLS[g][i] = (m[0] * row + m[1] * col + 1) * size + (m[2] * row + m[3] * col + 1);
+            }
+            DIRECTIONS[g] = new Direction[Direction.values().length];
+            for (var direction : Direction.values()) {
+                var row = direction.getRowChange();
+                var col = direction.getColChange();
+                DIRECTIONS[g][direction.ordinal()] = Direction.of(m[0] * row + m[1] * col, m[2] * row + m[3] * col);
+            }
+            VALUES[g] = findRelabeling(DIRECTIONS[g]);
+            for (var chunk = 0; chunk < CHUNK_COUNT; chunk++) {
+                for (var bits = 0; bits < 1 << CHUNK_BITS; bits++) {
+                    var image = 0;
+                    for (var k = 0; k < CELLS_PER_CHUNK; k++) {
+                        var value = (bits >>> (k * 3)) & 7;
+                        image |= VALUES[g][value] << (CELLS[g][chunk * CELLS_PER_CHUNK + k] * 3);
+                    }
+                    CHUNKS[g][chunk][bits] = image;
+                }
+            }
+        }
+        for (var g = 0; g < COUNT; g++) {
+            for (var h = 0; h < COUNT; h++) {
+                var isInverse = true;
+                for (var i = 0; i < PackedState.CELL_COUNT; i++) {
+                    isInverse &= CELLS[h][CELLS[g][i]] == i;
+                }
+                if (isInverse) {
+                    INVERSES[g] = h;
+                }
+            }
+        }
+    }
+
+    private Symmetry() {
+    }
+
+    /**
+     * {@return the relabeling of the values that maps the rolls of the cubes
+     * to the rolls in the directions specified, and that fixes the empty
+     * space and the goal orientation}
+     */
+    private static int[] findRelabeling(Direction[] directions) {
+        var relabeling = new int[8];
+        for (var i = 0; i < relabeling.length; i++) {
+            relabeling[i] = i;
+        }
+        if (!findRelabeling(directions, relabeling, Cube.CUBE1.getValue(), new boolean[Cube.values().length])) {
+            throw new AssertionError("No relabeling of the cubes is compatible with the symmetry");
+        }
+        return relabeling;
+    }
+
+    private static boolean findRelabeling(Direction[] directions, int[] relabeling, int value, boolean[] used) {
+        if (value == Cube.CUBE6.getValue()) {
+            for (var cube : Cube.values()) {
+                if (cube == Cube.EMPTY) {
+                    continue;
+                }
+                for (var direction : Direction.values()) {
+                    var image = Cube.of(relabeling[cube.getValue()]).rollTo(directions[direction.ordinal()]);
+                    if (relabeling[cube.rollTo(direction).getValue()] != image.getValue()) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        for (var image = Cube.CUBE1.getValue(); image < Cube.CUBE6.getValue(); image++) {
+            if (!used[image]) {
+                used[image] = true;
+                relabeling[value] = image;
+                if (findRelabeling(directions, relabeling, value + 1, used)) {
+                    return true;
+                }
+                used[image] = false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@return the image of the packed state specified under a symmetry}
+     *
+     * @param state a packed state
+     * @param symmetry the index of a symmetry between {@code 0} and
+     *                 {@value #COUNT}{@code - 1}
+     */
+    public static int apply(int state, int symmetry) {
+        var chunks = CHUNKS[symmetry];
+        return chunks[0][state & 0x1ff]
+                | chunks[1][(state >>> CHUNK_BITS) & 0x1ff]
+                | chunks[2][(state >>> (2 * CHUNK_BITS)) & 0x1ff]
+                | CELLS[symmetry][PackedState.getEmptyIndex(state)] << (PackedState.CELL_COUNT * 3);
+    }
+
+    /**
+     * {@return the image of a direction under a symmetry}
+     *
+     * @param direction a direction
+     * @param symmetry the index of a symmetry between {@code 0} and
+     *                 {@value #COUNT}{@code - 1}
+     */
+    public static Direction apply(Direction direction, int symmetry) {
+        return DIRECTIONS[symmetry][direction.ordinal()];
+    }
+
+    /**
+     * {@return the index of the inverse of a symmetry}
+     *
+     * @param symmetry the index of a symmetry between {@code 0} and
+     *                 {@value #COUNT}{@code - 1}
+     */
+    public static int inverse(int symmetry) {
+        return INVERSES[symmetry];
+    }
+
+    /**
+     * {@return the canonical representative of the packed state specified,
+     * that is the smallest packed state to which the state is mapped by the
+     * symmetries}
+     *
+     * @param state a packed state
+     */
+    public static int canonical(int state) {
+        var min = state;
+        for (var g = 1; g < COUNT; g++) {
+            min = Math.min(min, apply(state, g));
+        }
+        return min;
+    }
+
+    /**
+     * Stores the distinct states to which the packed state specified is
+     * mapped by the symmetries in the array specified.
+     *
+     * @param state a packed state
+     * @param images an array of length at least {@value #COUNT} to store the
+     *               states
+     * @return the number of distinct states stored
+     */
+    public static int orbit(int state, int[] images) {
+        var size = 0;
+        for (var g = 0; g < COUNT; g++) {
+            var image = apply(state, g);
+            var seen = false;
+            for (var i = 0; i < size && !seen; i++) {
+                seen = images[i] == image;
+            }
+            if (!seen) {
+                images[size++] = image;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * {@return the number of distinct states to which the packed state
+     * specified is mapped by the symmetries} The size is computed from the
+     * number of symmetries fixing the state, by the orbit-stabilizer
+     * theorem, thus the method does not allocate.
+     *
+     * @param state a packed state
+     */
+    public static int orbitSize(int state) {
+        var fixed = 1;
+        for (var g = 1; g < COUNT; g++) {
+            if (apply(state, g) == state) {
+                fixed++;
+            }
+        }
+        return COUNT / fixed;
+    }
+
+}
@@ -0,0 +1,253 @@
+package rollingcubes.tournament;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.tinylog.Logger;
+
+import rollingcubes.solver.DistanceTable;
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+
+/**
+ * Tournament of computer opponents playing the same start position as the
+ * human player. Each opponent makes a move toward the goal with the
+ * probability of its skill, and a random move otherwise, thus weaker
+ * opponents wander before they find the way.
+ *
+ * <p>The opponents are played on a bounded pool of background threads,
+ * each of them making a move at a fixed interval. The progress of each
+ * opponent is published as an immutable {@link Progress} object, thus it
+ * can be polled from any thread, e.g., once per frame by the user
+ * interface, without blocking the opponents.</p>
+ */
+public class Tournament implements Closeable {
+
+    /**
+     * The number of moves after which an opponent gives up.
+     */
+    public static final int MAX_STEPS = 500;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * Represents the progress of an opponent.
+     *
+     * @param state the packed state of the tray of the opponent
+     * @param steps the number of moves made by the opponent
+     * @param distance the number of moves needed to solve the puzzle from
+     *                 the state
+     */
+    public record Progress(int state, int steps, int distance) {
+
+        /**
+         * {@return whether the opponent has solved the puzzle}
+         */
+        public boolean isSolved() {
+            return distance == 0;
+        }
+
+        /**
+         * {@return whether the opponent has stopped playing, either by
+         * solving the puzzle or by giving up}
+         */
+        public boolean isFinished() {
+            return distance == 0 || steps >= MAX_STEPS;
+        }
+
+    }
+
+    private final DistanceTable table;
+
+    private final int start;
+
+    private final double[] skills;
+
+    private final long intervalNanos;
+
+    private final SplittableRandom random;
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final Opponent[] opponents;
+
+    /**
+     * Creates a {@code Tournament} object. The opponents do not start
+     * playing until {@link #start()} is invoked.
+     *
+     * @param table the distance table used to find the moves toward the goal
+     * @param start the packed start state of the games
+     * @param skills the skills of the opponents, each is the probability of
+     *               making a move toward the goal
+     * @param interval the time between the moves of an opponent
+     * @param threads the number of threads the opponents are played on
+     * @param seed the seed of the random moves
+     * @throws IllegalArgumentException if the start state can not be solved,
+     * a skill is not greater than 0 and at most 1, or the number of threads
+     * is not positive
+     */
+    public Tournament(DistanceTable table, int start, double[] skills, Duration interval, int threads, long seed) {
+        if (table.getDistance(start) == DistanceTable.UNREACHABLE) {
+            throw new IllegalArgumentException("Unsolvable start state: " + PackedState.toString(start));
+        }
+        for (var skill : skills) {
+            if (!(skill > 0 && skill <= 1)) {
+                throw new IllegalArgumentException("Invalid skill: " + skill);
+            }
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+        }
+        this.table = table;
+        this.start = start;
+        this.skills = skills.clone();
+        this.intervalNanos = interval.toNanos();
+        this.random = new SplittableRandom(seed);
+        executor = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            var thread = new Thread(runnable, "tournament");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        opponents = new Opponent[skills.length];
+        var progress = new Progress(start, 0, table.getDistance(start));
+        for (var i = 0; i < opponents.length; i++) {
+            opponents[i] = new Opponent(skills[i], random.split(), progress);
+        }
+    }
+
+    /**
+     * {@return the skills of the given number of opponents spread evenly
+     * between the weakest and the strongest skill specified}
+     *
+     * @param count the number of opponents
+     * @param weakest the skill of the weakest opponent
+     * @param strongest the skill of the strongest opponent
+     */
+    public static double[] spreadSkills(int count, double weakest, double strongest) {
+        var skills = new double[count];
+        for (var i = 0; i < count; i++) {
+            skills[i] = count == 1 ? strongest : weakest + (strongest - weakest) * i / (count - 1);
+        }
+        return skills;
+    }
+
+    /**
+     * Starts playing the opponents, with their first moves spread over the
+     * interval so that the opponents do not move in lockstep.
+     */
+    public void start() {
+        for (var opponent : opponents) {
+            executor.schedule(opponent, random.nextLong(intervalNanos + 1), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * {@return the packed start state of the games}
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * {@return the number of opponents}
+     */
+    public int getOpponentCount() {
+        return opponents.length;
+    }
+
+    /**
+     * {@return the skill of an opponent}
+     *
+     * @param i the index of the opponent
+     */
+    public double getSkill(int i) {
+        return skills[i];
+    }
+
+    /**
+     * {@return the latest progress of an opponent}
+     *
+     * @param i the index of the opponent
+     */
+    public Progress getProgress(int i) {
+        return opponents[i].progress;
+    }
+
+    /**
+     * {@return whether all opponents have stopped playing}
+     */
+    public boolean isFinished() {
+        for (var opponent : opponents) {
+            if (!opponent.progress.isFinished()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops the opponents.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * An opponent, whose moves are made one at a time by the executor, thus
+     * its fields other than {@link #progress} are accessed by one thread at
+     * a time.
+     */
+    private class Opponent implements Runnable {
+
+        private final double skill;
+
+        private final SplittableRandom random;
+
+        private final int[] moves = new int[DIRECTIONS.length];
+
+        private volatile Progress progress;
+
+        private Opponent(double skill, SplittableRandom random, Progress progress) {
+            this.skill = skill;
+            this.random = random;
+            this.progress = progress;
+        }
+
+        @Override
+        public void run() {
+            try {
+                var current = progress;
+                progress = move(current);
+                if (!progress.isFinished()) {
+                    executor.schedule(this, intervalNanos, TimeUnit.NANOSECONDS);
+                }
+            } catch (RuntimeException e) {
+                Logger.error(e, "Opponent failed");
+            }
+        }
+
+        /**
+         * {@return the progress after a move toward the goal with the
+         * probability of the skill, or a random move otherwise}
+         */
+        private Progress move(Progress current) {
+            var toward = random.nextDouble() < skill;
+            var count = 0;
+            for (var direction : DIRECTIONS) {
+                var next = PackedState.move(current.state(), direction);
+                if (next != PackedState.NO_MOVE && (!toward || table.getDistance(next) < current.distance())) {
+                    moves[count++] = next;
+                }
+            }
+            var next = moves[random.nextInt(count)];
+            return new Progress(next, current.steps() + 1, table.getDistance(next));
+        }
+
+    }
+
+}
@@ -0,0 +1,5 @@
+/**
+ * Provides the tournament mode, where computer opponents play the same
+ * start position as the human player.
+ */
+package rollingcubes.tournament;
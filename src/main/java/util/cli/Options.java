@@ -0,0 +1,34 @@
+package util.cli;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses the options of the command line tools, that are given in
+ * {@code --name=value} form.
+ */
+public final class Options {
+
+    private Options() {
+    }
+
+    /**
+     * {@return the values of the options by their names}
+     *
+     * @param args the command line arguments
+     * @throws IllegalArgumentException if an argument is not in
+     * {@code --name=value} form
+     */
+    public static Map<String, String> parse(String[] args) {
+        var options = new HashMap<String, String>();
+        for (var arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid option: " + arg);
+            }
+            var i = arg.indexOf('=');
+            options.put(arg.substring(2, i), arg.substring(i + 1));
+        }
+        return options;
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Provides the parsing of the options of the command line tools.
+ */
+package util.cli;
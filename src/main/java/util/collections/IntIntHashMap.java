@@ -0,0 +1,137 @@
+package util.collections;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from non-negative {@code int} keys to {@code int} values that
+ * stores its entries in a single primitive array using open addressing with
+ * linear probing. Unlike {@link java.util.HashMap}, neither the keys nor the
+ * values are boxed, and entries take 8 bytes at a load factor of at most
+ * one half.
+ */
+public class IntIntHashMap {
+
+    /**
+     * The value returned by {@link #get(int)} when the key is not present.
+     */
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+
+    private static final int FREE = -1;
+
+    /**
+     * Keys and values stored in adjacent elements.
+     */
+    private int[] entries;
+
+    private int mask;
+
+    private int size;
+
+    /**
+     * Creates an {@code IntIntHashMap} object.
+     *
+     * @param expectedSize the number of entries to be stored without resizing
+     */
+    public IntIntHashMap(int expectedSize) {
+        var capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        entries = new int[capacity * 2];
+        Arrays.fill(entries, FREE);
+        mask = capacity - 1;
+    }
+
+    private static int hash(int key) {
+        var h = key * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * {@return the value associated with the key specified, or
+     * {@link #NO_VALUE} if the key is not present}
+     *
+     * @param key a non-negative key
+     */
+    public int get(int key) {
+        for (var i = hash(key) & mask; ; i = (i + 1) & mask) {
+            var k = entries[2 * i];
+            if (k == key) {
+                return entries[2 * i + 1];
+            }
+            if (k == FREE) {
+                return NO_VALUE;
+            }
+        }
+    }
+
+    /**
+     * {@return whether the key specified is present}
+     *
+     * @param key a non-negative key
+     */
+    public boolean containsKey(int key) {
+        return get(key) != NO_VALUE;
+    }
+
+    /**
+     * Associates a value with a key, if the key is not present.
+     *
+     * @param key a non-negative key
+     * @param value the value, that must not be {@link #NO_VALUE}
+     * @return {@code true} if the entry was added, {@code false} if the key
+     * was already present
+     */
+    public boolean putIfAbsent(int key, int value) {
+        if (key < 0 || value == NO_VALUE) {
+            throw new IllegalArgumentException();
+        }
+        for (var i = hash(key) & mask; ; i = (i + 1) & mask) {
+            var k = entries[2 * i];
+            if (k == key) {
+                return false;
+            }
+            if (k == FREE) {
+                entries[2 * i] = key;
+                entries[2 * i + 1] = value;
+                if (++size * 2 > mask + 1) {
+                    rehash();
+                }
+                return true;
+            }
+        }
+    }
+
+    private void rehash() {
+        var old = entries;
+        allocate((mask + 1) * 2);
+        for (var i = 0; i < old.length; i += 2) {
+            if (old[i] != FREE) {
+                var j = hash(old[i]) & mask;
+                while (entries[2 * j] != FREE) {
+                    j = (j + 1) & mask;
+                }
+                entries[2 * j] = old[i];
+                entries[2 * j + 1] = old[i + 1];
+            }
+        }
+    }
+
+    /**
+     * Removes all the entries, keeping the capacity, thus the map can be
+     * reused without allocating.
+     */
+    public void clear() {
+        Arrays.fill(entries, FREE);
+        size = 0;
+    }
+
+    /**
+     * {@return the number of entries}
+     */
+    public int size() {
+        return size;
+    }
+
+}
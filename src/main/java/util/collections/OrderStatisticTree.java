@@ -0,0 +1,256 @@
+package util.collections;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A sorted set that can also find the position of its elements and the
+ * elements at given positions. The set is implemented as a treap, a binary
+ * search tree balanced by random priorities, whose nodes store the size of
+ * their subtrees. Each operation takes expected {@code O(log n)} time.
+ *
+ * <p>Instances of this class are not thread-safe.</p>
+ *
+ * @param <E> the type of the elements
+ */
+public class OrderStatisticTree<E> {
+
+    private final Comparator<? super E> comparator;
+
+    private final SplittableRandom random = new SplittableRandom();
+
+    private Node<E> root;
+
+    private static class Node<E> {
+
+        private final E element;
+
+        private final int priority;
+
+        private int size = 1;
+
+        private Node<E> left;
+
+        private Node<E> right;
+
+        private Node(E element, int priority) {
+            this.element = element;
+            this.priority = priority;
+        }
+
+    }
+
+    /**
+     * The two trees resulting from a split.
+     */
+    private static class Split<E> {
+
+        private Node<E> left;
+
+        private Node<E> right;
+
+    }
+
+    /**
+     * Creates an empty {@code OrderStatisticTree} object.
+     *
+     * @param comparator the comparator that defines the order of the
+     *                   elements, elements comparing equal are considered
+     *                   the same
+     */
+    public OrderStatisticTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    /**
+     * Joins two trees, where all the elements of the first tree precede the
+     * elements of the second tree.
+     */
+    private static <E> Node<E> merge(Node<E> left, Node<E> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    /**
+     * Splits a tree into the elements that precede the element specified and
+     * the rest, stored in {@code parts}.
+     */
+    private void split(Node<E> node, E element, Split<E> parts) {
+        if (node == null) {
+            parts.left = null;
+            parts.right = null;
+        } else if (comparator.compare(node.element, element) < 0) {
+            split(node.right, element, parts);
+            node.right = parts.left;
+            update(node);
+            parts.left = node;
+        } else {
+            split(node.left, element, parts);
+            node.left = parts.right;
+            update(node);
+            parts.right = node;
+        }
+    }
+
+    /**
+     * Adds an element to the set.
+     *
+     * @param element the element to be added
+     * @return {@code true} if the set did not already contain the element
+     */
+    public boolean add(E element) {
+        if (indexOf(element) >= 0) {
+            return false;
+        }
+        var parts = new Split<E>();
+        split(root, element, parts);
+        root = merge(merge(parts.left, new Node<>(element, random.nextInt())), parts.right);
+        return true;
+    }
+
+    /**
+     * Removes an element from the set.
+     *
+     * @param element the element to be removed
+     * @return {@code true} if the set contained the element
+     */
+    public boolean remove(E element) {
+        if (indexOf(element) < 0) {
+            return false;
+        }
+        root = remove(root, element);
+        return true;
+    }
+
+    private Node<E> remove(Node<E> node, E element) {
+        var c = comparator.compare(element, node.element);
+        if (c == 0) {
+            return merge(node.left, node.right);
+        }
+        if (c < 0) {
+            node.left = remove(node.left, element);
+        } else {
+            node.right = remove(node.right, element);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * {@return the position of an element in the set, or -1 if the set does
+     * not contain the element}
+     *
+     * @param element an element
+     */
+    public int indexOf(E element) {
+        var index = 0;
+        var node = root;
+        while (node != null) {
+            var c = comparator.compare(element, node.element);
+            if (c == 0) {
+                return index + size(node.left);
+            }
+            if (c < 0) {
+                node = node.left;
+            } else {
+                index += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * {@return the element at the position specified}
+     *
+     * @param index a position between {@code 0} and
+     *              {@link #size()}{@code - 1}
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        var node = root;
+        while (true) {
+            var leftSize = size(node.left);
+            if (index == leftSize) {
+                return node.element;
+            }
+            if (index < leftSize) {
+                node = node.left;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * {@return the elements between the positions specified in ascending
+     * order} The range is clamped to the positions of the set.
+     *
+     * @param fromIndex the first position, inclusive
+     * @param toIndex the last position, exclusive
+     */
+    public List<E> range(int fromIndex, int toIndex) {
+        var from = Math.max(0, fromIndex);
+        var to = Math.min(size(), toIndex);
+        var result = new ArrayList<E>(Math.max(0, to - from));
+        collect(root, from, to, 0, result);
+        return result;
+    }
+
+    /**
+     * Collects the elements of a subtree, whose first element is at position
+     * {@code offset}, that are in the range specified.
+     */
+    private static <E> void collect(Node<E> node, int from, int to, int offset, List<E> result) {
+        if (node == null || offset >= to || offset + node.size <= from) {
+            return;
+        }
+        collect(node.left, from, to, offset, result);
+        var index = offset + size(node.left);
+        if (index >= from && index < to) {
+            result.add(node.element);
+        }
+        collect(node.right, from, to, index + 1, result);
+    }
+
+    /**
+     * {@return the number of elements in the set}
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Removes all elements from the set.
+     */
+    public void clear() {
+        root = null;
+    }
+
+}
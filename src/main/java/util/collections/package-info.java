@@ -0,0 +1,4 @@
+/**
+ * Provides special-purpose collections, e.g., of primitive values.
+ */
+package util.collections;
@@ -1,19 +1,45 @@
 package util.guice;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.matcher.Matchers;
+import com.google.inject.persist.Transactional;
 import com.google.inject.persist.jpa.JpaPersistModule;
 
+import java.util.Map;
+
+import util.jpa.DaoMetricsInterceptor;
+import util.jpa.GenericJpaDao;
+
 public class PersistenceModule extends AbstractModule {
 
     private String jpaUnit;
 
+    private Map<?, ?> properties;
+
     public PersistenceModule(String jpaUnit) {
+        this(jpaUnit, Map.of());
+    }
+
+    /**
+     * Creates a {@code PersistenceModule} object that overrides the
+     * properties of the persistence unit with the ones specified, e.g.,
+     * {@code javax.persistence.jdbc.url}.
+     *
+     * @param jpaUnit the name of the persistence unit
+     * @param properties the properties overriding the ones of the
+     *                   persistence unit
+     */
+    public PersistenceModule(String jpaUnit, Map<?, ?> properties) {
         this.jpaUnit = jpaUnit;
+        this.properties = properties;
     }
 
     @Override
     protected void configure() {
-        install(new JpaPersistModule(jpaUnit));
+        // bound first so that the measurements include the transaction
+        bindInterceptor(Matchers.subclassesOf(GenericJpaDao.class), Matchers.annotatedWith(Transactional.class),
+                new DaoMetricsInterceptor());
+        install(new JpaPersistModule(jpaUnit).properties(properties));
         bind(JpaInitializer.class).asEagerSingleton();
     }
 
@@ -1,63 +1,101 @@
 package util.javafx;
 
 import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.beans.binding.Bindings;
-import javafx.beans.property.LongProperty;
-import javafx.beans.property.SimpleLongProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
-import javafx.util.Duration;
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+import java.time.Duration;
 
 import org.apache.commons.lang3.time.DurationFormatUtils;
 
 /**
- * A general-purpose stopwatch.
+ * A general-purpose stopwatch. The elapsed time is measured with the
+ * monotonic {@link System#nanoTime()} clock, thus it does not drift when the
+ * JavaFX pulse is delayed. The formatted elapsed time is refreshed on each
+ * pulse while the stopwatch is running, but the property is only updated
+ * when the displayed value changes.
  */
 public class Stopwatch {
 
-    private LongProperty seconds = new SimpleLongProperty();
-    private StringProperty hhmmss = new SimpleStringProperty();
-    private Timeline timeline;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private ReadOnlyStringWrapper hhmmss = new ReadOnlyStringWrapper(format(0));
+    private AnimationTimer timer;
+    private Animation.Status status = Animation.Status.STOPPED;
+
+    /**
+     * The total time elapsed in nanoseconds before the last start.
+     */
+    private long accumulatedNanos;
+
+    /**
+     * The value of {@link System#nanoTime()} at the last start.
+     */
+    private long startNanos;
+
+    /**
+     * The number of seconds currently displayed.
+     */
+    private long displayedSeconds;
 
     /**
      * Creates a {@code Stopwatch} object.
      */
     public Stopwatch() {
-        timeline = new Timeline(new KeyFrame(Duration.ZERO, e -> seconds.set(seconds.get() + 1)),
-                new KeyFrame(Duration.seconds(1)));
-        timeline.setCycleCount(Animation.INDEFINITE);
-        hhmmss.bind(Bindings.createStringBinding(() -> DurationFormatUtils.formatDuration(seconds.get() * 1000, "HH:mm:ss"), seconds));
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                refresh();
+            }
+        };
     }
 
     /**
-     * {@return a property to access the number of seconds elapsed}
+     * {@return the time elapsed with nanosecond precision}
      */
-    public LongProperty secondsProperty() {
-        return seconds;
+    public Duration getElapsed() {
+        return Duration.ofNanos(getElapsedNanos());
+    }
+
+    private long getElapsedNanos() {
+        if (status == Animation.Status.RUNNING) {
+            return accumulatedNanos + System.nanoTime() - startNanos;
+        }
+        return accumulatedNanos;
     }
 
     /**
      * {@return a property to access the time elapsed in {@code hh:mm:ss}
      * format}
      */
-    public StringProperty hhmmssProperty() {
-        return hhmmss;
+    public ReadOnlyStringProperty hhmmssProperty() {
+        return hhmmss.getReadOnlyProperty();
     }
 
     /**
      * Starts the stopwatch.
      */
     public void start() {
-        timeline.play();
+        if (status == Animation.Status.RUNNING) {
+            return;
+        }
+        startNanos = System.nanoTime();
+        status = Animation.Status.RUNNING;
+        timer.start();
     }
 
     /**
      * Pauses the stopwatch.
      */
     public void stop() {
-        timeline.pause();
+        if (status != Animation.Status.RUNNING) {
+            return;
+        }
+        accumulatedNanos += System.nanoTime() - startNanos;
+        status = Animation.Status.PAUSED;
+        timer.stop();
+        refresh();
     }
 
     /**
@@ -67,17 +105,30 @@ public class Stopwatch {
      * @throws IllegalStateException if the stopwatch is not paused
      */
     public void reset() {
-        if (timeline.getStatus() != Animation.Status.PAUSED) {
+        if (status != Animation.Status.PAUSED) {
             throw new IllegalStateException();
         }
-        seconds.set(0);
+        accumulatedNanos = 0;
+        refresh();
     }
 
     /**
      * {@return the status of the stopwatch}
      */
     public Animation.Status getStatus() {
-        return timeline.getStatus();
+        return status;
+    }
+
+    private void refresh() {
+        var seconds = getElapsedNanos() / NANOS_PER_SECOND;
+        if (seconds != displayedSeconds) {
+            displayedSeconds = seconds;
+            hhmmss.set(format(seconds));
+        }
+    }
+
+    private static String format(long seconds) {
+        return DurationFormatUtils.formatDuration(seconds * 1000, "HH:mm:ss");
     }
 
 }
@@ -0,0 +1,59 @@
+package util.jpa;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import util.metrics.Counter;
+import util.metrics.LatencyHistogram;
+import util.metrics.Metrics;
+
+/**
+ * Method interceptor that measures the transactional methods of
+ * {@link GenericJpaDao} subclasses. The latency of each method is recorded
+ * in the {@code jpa.<entity>.<method>} histogram, and outermost invocations
+ * are counted in the {@code jpa.transactions} counter. The interceptor must
+ * be bound before the transaction interceptor so that measurements include
+ * the commit. The histograms are looked up once for each method, thus an
+ * invocation does not build their names.
+ */
+public class DaoMetricsInterceptor implements MethodInterceptor {
+
+    private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    private static final Counter transactions = Metrics.counter("jpa.transactions");
+
+    /**
+     * The histograms of the methods for each DAO class. The methods inherited
+     * from {@link GenericJpaDao} are shared by the DAO classes, thus they are
+     * keyed by the class as well.
+     */
+    private static final ClassValue<Map<Method, LatencyHistogram>> histograms = new ClassValue<>() {
+        @Override
+        protected Map<Method, LatencyHistogram> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        var dao = (GenericJpaDao<?>) invocation.getThis();
+        var histogram = histograms.get(dao.getClass()).computeIfAbsent(invocation.getMethod(),
+                method -> Metrics.histogram("jpa." + dao.entityClass.getSimpleName() + "." + method.getName()));
+        var currentDepth = depth.get();
+        if (currentDepth[0]++ == 0) {
+            transactions.increment();
+        }
+        var start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            histogram.recordSince(start);
+            currentDepth[0]--;
+        }
+    }
+
+}
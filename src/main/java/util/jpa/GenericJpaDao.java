@@ -4,12 +4,17 @@ import java.util.List;
 import java.util.Optional;
 
 import javax.inject.Inject;
+import javax.inject.Provider;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
 
 import com.google.inject.persist.Transactional;
 
+import org.hibernate.Session;
+
 /**
  * Generic JPA DAO class that provides JPA support for the entity class
  * specified.
@@ -19,7 +24,7 @@ import com.google.inject.persist.Transactional;
 public abstract class GenericJpaDao<T> {
 
     protected Class<T> entityClass;
-    protected EntityManager entityManager;
+    protected Provider<EntityManager> entityManagerProvider;
 
     /**
      * Creates a {@code GenericJpaDao} object.
@@ -31,20 +36,45 @@ public abstract class GenericJpaDao<T> {
     }
 
     /**
-     * {@return the underlying {@link EntityManager} instance}
+     * {@return the {@link EntityManager} instance of the current unit of work}
+     * The instance is bound to the calling thread, thus the DAO can be shared
+     * between threads.
      */
     public EntityManager getEntityManager() {
-        return entityManager;
+        return entityManagerProvider.get();
     }
 
     /**
-     * Sets the underlying {@link EntityManager} instance.
+     * Sets the provider of the underlying {@link EntityManager} instances.
      *
-     * @param entityManager the underlying {@link EntityManager} instance
+     * @param entityManagerProvider the provider of the underlying
+     *                              {@link EntityManager} instances
      */
     @Inject
-    public void setEntityManager(EntityManager entityManager) {
-        this.entityManager = entityManager;
+    public void setEntityManagerProvider(Provider<EntityManager> entityManagerProvider) {
+        this.entityManagerProvider = entityManagerProvider;
+    }
+
+    /**
+     * Registers an action to be run after the current transaction has been
+     * committed. The action is not run if the transaction is rolled back.
+     * Must be invoked within a transaction.
+     *
+     * @param action the action to be run
+     */
+    protected void afterCommit(Runnable action) {
+        getEntityManager().unwrap(Session.class).getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
     }
 
     /**
@@ -54,7 +84,18 @@ public abstract class GenericJpaDao<T> {
      */
     @Transactional
     public void persist(T entity) {
-        entityManager.persist(entity);
+        getEntityManager().persist(entity);
+        afterPersist(entity);
+    }
+
+    /**
+     * Invoked by {@link #persist(Object)} within its transaction after the
+     * entity instance has been persisted. Subclasses can override this
+     * method to update related data atomically with the entity instance.
+     *
+     * @param entity the entity instance persisted
+     */
+    protected void afterPersist(T entity) {
     }
 
     /**
@@ -68,7 +109,30 @@ public abstract class GenericJpaDao<T> {
      */
     @Transactional
     public Optional<T> find(Object primaryKey) {
-        return Optional.ofNullable(entityManager.find(entityClass, primaryKey));
+        return Optional.ofNullable(getEntityManager().find(entityClass, primaryKey));
+    }
+
+    /**
+     * Returns the entity instance with the specified primary key from the
+     * database in read-only mode, that is, no snapshot of its state is kept
+     * for dirty checking and its changes are not written to the database.
+     * The method returns an empty {@link Optional} object when the instance
+     * does not exist.
+     *
+     * @param primaryKey the primary key to look for
+     * @return an {@link Optional} object wrapping the entity instance with
+     * the specified primary key
+     */
+    @Transactional
+    public Optional<T> findReadOnly(Object primaryKey) {
+        var session = getEntityManager().unwrap(Session.class);
+        var defaultReadOnly = session.isDefaultReadOnly();
+        session.setDefaultReadOnly(true);
+        try {
+            return Optional.ofNullable(session.find(entityClass, primaryKey));
+        } finally {
+            session.setDefaultReadOnly(defaultReadOnly);
+        }
     }
 
     /**
@@ -76,10 +140,19 @@ public abstract class GenericJpaDao<T> {
      */
     @Transactional
     public List<T> findAll() {
-        TypedQuery<T> typedQuery = entityManager.createQuery("FROM " + entityClass.getSimpleName(), entityClass);
+        TypedQuery<T> typedQuery = getEntityManager().createQuery("FROM " + entityClass.getSimpleName(), entityClass);
         return typedQuery.getResultList();
     }
 
+    /**
+     * {@return the number of instances of the entity class in the database}
+     */
+    @Transactional
+    public long count() {
+        return getEntityManager().createQuery("SELECT COUNT(e) FROM " + entityClass.getSimpleName() + " e", Long.class)
+                .getSingleResult();
+    }
+
     /**
      * Removes the specified entity instance from the database.
      *
@@ -87,7 +160,7 @@ public abstract class GenericJpaDao<T> {
      */
     @Transactional
     public void remove(T entity) {
-        entityManager.remove(entity);
+        getEntityManager().remove(entity);
     }
 
     /**
@@ -97,7 +170,7 @@ public abstract class GenericJpaDao<T> {
      */
     @Transactional
     public void update(T entity) {
-        entityManager.merge(entity);
+        getEntityManager().merge(entity);
     }
 
 }
@@ -0,0 +1,13 @@
+package util.metrics;
+
+/**
+ * Management interface of a {@link Counter}.
+ */
+public interface CounterMXBean {
+
+    /**
+     * {@return the current value of the counter}
+     */
+    long getCount();
+
+}
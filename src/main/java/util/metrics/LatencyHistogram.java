@@ -0,0 +1,147 @@
+package util.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies measured in nanoseconds. Values are counted in
+ * log-linear buckets: each power of two range is divided into
+ * {@value #SUB_BUCKET_COUNT} equal sub-buckets, thus percentiles are
+ * reported with a relative error of about 3%. Recording a value updates
+ * its bucket, the sum and the maximum, that is three atomic updates, and
+ * does not allocate. The number of values is derived from the buckets.
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The magnitude of the largest value that can be recorded, larger values
+     * are counted in the last bucket.
+     */
+    private static final int MAX_MAGNITUDE = 42;
+
+    private static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a value.
+     *
+     * @param nanos the value to be recorded in nanoseconds, negative values
+     *              are recorded as zero
+     */
+    public void record(long nanos) {
+        var value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(Math.min(value, MAX_VALUE)));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Records the time elapsed since the value specified.
+     *
+     * @param startNanos a value previously returned by
+     *                   {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        var magnitude = 63 - Long.numberOfLeadingZeros(value);
+        var subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + (magnitude - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        var shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        var subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        return ((long) (SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * {@return the value in nanoseconds below which the percentage of the
+     * values specified fall}
+     *
+     * @param percentile a value between 0 and 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        var total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        var target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (var i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * {@return the maximum of the values recorded in nanoseconds}
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * {@return the mean of the values recorded in nanoseconds}
+     */
+    public double getMean() {
+        var n = getCount();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    @Override
+    public long getCount() {
+        long total = 0;
+        for (var i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return getMean() / 1e6;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return getValueAtPercentile(50) / 1e6;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return getValueAtPercentile(99) / 1e6;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return getMax() / 1e6;
+    }
+
+    public String toString() {
+        return String.format("{count=%d, mean=%.3fms, p50=%.3fms, p99=%.3fms, max=%.3fms}",
+                getCount(), getMeanMillis(), getP50Millis(), getP99Millis(), getMaxMillis());
+    }
+
+}
@@ -0,0 +1,34 @@
+package util.metrics;
+
+/**
+ * Management interface of a {@link LatencyHistogram}. Latencies are
+ * reported in milliseconds.
+ */
+public interface LatencyHistogramMXBean {
+
+    /**
+     * {@return the number of values recorded}
+     */
+    long getCount();
+
+    /**
+     * {@return the mean of the values recorded in milliseconds}
+     */
+    double getMeanMillis();
+
+    /**
+     * {@return the median of the values recorded in milliseconds}
+     */
+    double getP50Millis();
+
+    /**
+     * {@return the 99th percentile of the values recorded in milliseconds}
+     */
+    double getP99Millis();
+
+    /**
+     * {@return the maximum of the values recorded in milliseconds}
+     */
+    double getMaxMillis();
+
+}
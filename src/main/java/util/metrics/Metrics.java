@@ -0,0 +1,107 @@
+package util.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.tinylog.Logger;
+
+/**
+ * Registry of the metrics of the application. Metrics are created on first
+ * use and registered with the platform MBean server under the
+ * {@value #JMX_DOMAIN} domain.
+ */
+public class Metrics {
+
+    /**
+     * The JMX domain of the metrics.
+     */
+    public static final String JMX_DOMAIN = "util.metrics";
+
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService reporter;
+
+    private Metrics() {
+    }
+
+    /**
+     * {@return the counter with the name specified, the counter is created if
+     * it does not exist}
+     *
+     * @param name the name of the counter
+     */
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> register(key, "Counter", new Counter()));
+    }
+
+    /**
+     * {@return the latency histogram with the name specified, the histogram
+     * is created if it does not exist}
+     *
+     * @param name the name of the histogram
+     */
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> register(key, "LatencyHistogram", new LatencyHistogram()));
+    }
+
+    private static <T> T register(String name, String type, T metric) {
+        try {
+            var objectName = new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metric, objectName);
+        } catch (JMException e) {
+            Logger.warn(e, "Failed to register metric {} with JMX", name);
+        }
+        return metric;
+    }
+
+    /**
+     * {@return a single-line summary of all metrics sorted by name}
+     */
+    public static String summary() {
+        var all = new TreeMap<String, Object>();
+        all.putAll(counters);
+        all.putAll(histograms);
+        return all.toString();
+    }
+
+    /**
+     * Starts logging the summary of the metrics periodically. The method
+     * has no effect if the reporting has already been started.
+     *
+     * @param period the time between two log lines
+     */
+    public static synchronized void startReporting(Duration period) {
+        if (reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> Logger.info("Metrics: {}", summary()),
+                period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic logging of the summary of the metrics.
+     */
+    public static synchronized void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Provides low-overhead counters and latency histograms exported via JMX.
+ */
+package util.metrics;
@@ -46,14 +46,17 @@ public class GameResult {
     private Duration duration;
 
     /**
-     * The timestamp when the result was saved.
+     * The timestamp when the result was saved, or when it was captured if
+     * it has been set before saving.
      */
     @Column(nullable = false)
     private ZonedDateTime created;
 
     @PrePersist
     protected void onPersist() {
-        created = ZonedDateTime.now();
+        if (created == null) {
+            created = ZonedDateTime.now();
+        }
     }
 
 }
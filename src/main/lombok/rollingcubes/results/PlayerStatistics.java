@@ -0,0 +1,89 @@
+package rollingcubes.results;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Duration;
+
+/**
+ * Class representing the aggregated results of a player. The aggregates are
+ * updated in the transaction that persists each result, thus they are
+ * available without scanning the results.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+public class PlayerStatistics {
+
+    /**
+     * The name of the player.
+     */
+    @Id
+    private String player;
+
+    /**
+     * The number of games played.
+     */
+    private int games;
+
+    /**
+     * The number of games in which the player has solved the puzzle.
+     */
+    private int solvedGames;
+
+    /**
+     * The total number of steps made in the games.
+     */
+    private long totalSteps;
+
+    /**
+     * The shortest duration of the solved games, or {@code null} if the
+     * player has not solved the puzzle yet.
+     */
+    private Duration bestDuration;
+
+    /**
+     * The smallest number of steps of the solved games, or {@code null} if
+     * the player has not solved the puzzle yet.
+     */
+    private Integer fewestSteps;
+
+    /**
+     * Updates the aggregates with a result of the player.
+     *
+     * @param result a result of the player
+     */
+    public void add(GameResult result) {
+        games++;
+        totalSteps += result.getSteps();
+        if (result.isSolved()) {
+            solvedGames++;
+            if (bestDuration == null || result.getDuration().compareTo(bestDuration) < 0) {
+                bestDuration = result.getDuration();
+            }
+            if (fewestSteps == null || result.getSteps() < fewestSteps) {
+                fewestSteps = result.getSteps();
+            }
+        }
+    }
+
+    /**
+     * {@return the ratio of the solved games to all games}
+     */
+    public double getSolveRate() {
+        return games == 0 ? 0 : (double) solvedGames / games;
+    }
+
+    /**
+     * {@return the average number of steps per game}
+     */
+    public double getAverageSteps() {
+        return games == 0 ? 0 : (double) totalSteps / games;
+    }
+
+}
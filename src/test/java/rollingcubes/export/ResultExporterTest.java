@@ -0,0 +1,86 @@
+package rollingcubes.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+
+import com.google.inject.Guice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rollingcubes.results.GameResult;
+import rollingcubes.results.GameResultDao;
+import util.jpa.InMemoryPersistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultExporterTest {
+
+    private GameResultDao gameResultDao;
+
+    @BeforeEach
+    void init() {
+        var injector = Guice.createInjector(InMemoryPersistence.module());
+        gameResultDao = injector.getInstance(GameResultDao.class);
+    }
+
+    private byte[] export(int chunkSize) throws IOException {
+        var out = new ByteArrayOutputStream();
+        new ResultExporter(gameResultDao, chunkSize).export(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void testConstructor_invalidChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ResultExporter(gameResultDao, 0));
+    }
+
+    @Test
+    void testExport_empty() throws IOException {
+        var results = new ArrayList<GameResult>();
+        assertEquals(0, ResultExporter.read(new ByteArrayInputStream(export(10)), results::add));
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    void testExport_roundTrip() throws IOException {
+        var created = ZonedDateTime.now().minusDays(1);
+        String[] players = {"alice", "bob", "Ödön", "carol"};
+        for (var i = 0; i < 250; i++) {
+            gameResultDao.persist(GameResult.builder()
+                    .player(players[i * 7 % players.length])
+                    .solved(i % 3 != 0)
+                    .steps(i)
+                    .duration(Duration.ofMillis(1000L * i + 7))
+                    .created(created.plusSeconds(i % 10 == 0 ? -i : i))
+                    .build());
+        }
+        var expected = gameResultDao.findAfter(0, 1000);
+        for (var chunkSize : new int[]{1, 50, 64, 250, 1000}) {
+            var results = new ArrayList<GameResult>();
+            assertEquals(250, ResultExporter.read(new ByteArrayInputStream(export(chunkSize)), results::add));
+            assertEquals(expected.size(), results.size());
+            for (var i = 0; i < expected.size(); i++) {
+                var e = expected.get(i);
+                var r = results.get(i);
+                assertEquals(e.getId(), r.getId());
+                assertEquals(e.getPlayer(), r.getPlayer());
+                assertEquals(e.isSolved(), r.isSolved());
+                assertEquals(e.getSteps(), r.getSteps());
+                assertEquals(e.getDuration(), r.getDuration());
+                assertEquals(e.getCreated().toInstant(), r.getCreated().toInstant());
+            }
+        }
+    }
+
+    @Test
+    void testRead_invalid() {
+        assertThrows(IOException.class, () -> ResultExporter.read(new ByteArrayInputStream(new byte[]{1, 2, 3}),
+                result -> {}));
+    }
+
+}
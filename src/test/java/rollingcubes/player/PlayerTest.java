@@ -0,0 +1,121 @@
+package rollingcubes.player;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import rollingcubes.solver.DistanceTable;
+import rollingcubes.state.Cube;
+import rollingcubes.state.PackedState;
+import rollingcubes.state.RollingCubesState;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerTest {
+
+    @Test
+    void testOrientationHeuristic() {
+        for (var empty = 0; empty < PackedState.CELL_COUNT; empty++) {
+            assertEquals(0, OrientationHeuristic.estimate(PackedState.getGoal(empty)));
+        }
+        var state = PackedState.pack(new RollingCubesState(RollingCubesState.NEAR_GOAL));
+        assertTrue(OrientationHeuristic.estimate(state) > 0);
+        var tray = new int[3][3];
+        for (var row : tray) {
+            Arrays.fill(row, Cube.CUBE1.getValue());
+        }
+        tray[1][1] = Cube.EMPTY.getValue();
+        assertTrue(OrientationHeuristic.estimate(PackedState.pack(tray)) >= 8);
+    }
+
+    @Test
+    void testBeamPlayer_invalid() {
+        assertThrows(IllegalArgumentException.class, () -> new BeamPlayer(0, 5));
+        assertThrows(IllegalArgumentException.class, () -> new BeamPlayer(5, 0));
+    }
+
+    @Test
+    void testMctsPlayer_invalid() {
+        assertThrows(IllegalArgumentException.class, () -> new MctsPlayer(Duration.ZERO, 0, 1, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new MctsPlayer(Duration.ZERO, 10, 0, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new MctsPlayer(Duration.ZERO, 10, 1, 0, 0));
+    }
+
+    @Test
+    void testMctsPlayer() {
+        var table = DistanceTable.getInstance();
+        var corpus = PlayerBenchmark.corpus(20, 10, 2);
+        try (var benchmark = new PlayerBenchmark(table, 200, 2)) {
+            var result = benchmark.run(i -> new MctsPlayer(Duration.ofMinutes(1), 2000, 1, 30, i), corpus);
+            assertEquals(20, result.solved());
+            assertEquals(result.steps(),
+                    benchmark.run(i -> new MctsPlayer(Duration.ofMinutes(1), 2000, 1, 30, i), corpus).steps());
+        }
+    }
+
+    @Test
+    void testMctsPlayer_parallel() {
+        var start = PlayerBenchmark.corpus(1, 10, 3)[0];
+        assertEquals(playParallel(start), playParallel(start));
+    }
+
+    /**
+     * Plays a game with a parallel search bounded by the number of
+     * iterations, thus the moves do not depend on the speed of the machine.
+     *
+     * @return the states reached
+     */
+    private static List<Integer> playParallel(int start) {
+        var states = new ArrayList<Integer>();
+        try (var player = new MctsPlayer(Duration.ofMinutes(1), 500, 4, 30, 1)) {
+            var state = start;
+            for (var steps = 0; steps < 30 && !PackedState.isSolved(state); steps++) {
+                state = PackedState.move(state, player.nextMove(state));
+                assertNotEquals(PackedState.NO_MOVE, state);
+                states.add(state);
+            }
+        }
+        return states;
+    }
+
+    @Test
+    void testMctsPlayer_zeroBudget() {
+        var state = PlayerBenchmark.corpus(1, 20, 4)[0];
+        var player = new MctsPlayer(Duration.ZERO, 1, 1, 10, 0);
+        for (var steps = 0; steps < 100; steps++) {
+            state = PackedState.move(state, player.nextMove(state));
+            assertNotEquals(PackedState.NO_MOVE, state);
+        }
+    }
+
+    @Test
+    void testBenchmark() {
+        var table = DistanceTable.getInstance();
+        var corpus = PlayerBenchmark.corpus(200, 10, 1);
+        try (var benchmark = new PlayerBenchmark(table, 200, 4)) {
+            var optimal = benchmark.run(i -> new OptimalPlayer(table), corpus);
+            assertEquals(200, optimal.games());
+            assertEquals(200, optimal.solved());
+            assertEquals(2000, optimal.steps());
+            assertEquals(1.0, optimal.stepRatio());
+            assertEquals(2000, optimal.moves());
+
+            var beam = benchmark.run(i -> new BeamPlayer(64, 16), corpus);
+            assertTrue(beam.solveRate() > 0.9, "beam solve rate " + beam.solveRate());
+            assertTrue(beam.stepRatio() >= 1.0);
+
+            for (var result : new PlayerBenchmark.Result[]{
+                    benchmark.run(i -> new GreedyPlayer(new SplittableRandom(i)), corpus),
+                    benchmark.run(i -> new RandomPlayer(new SplittableRandom(i)), corpus)}) {
+                assertEquals(200, result.games());
+                assertTrue(result.stepRatio() >= 1.0);
+                assertTrue(result.moves() >= result.steps());
+            }
+        }
+    }
+
+}
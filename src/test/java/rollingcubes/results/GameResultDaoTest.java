@@ -0,0 +1,77 @@
+package rollingcubes.results;
+
+import java.time.Duration;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.persist.UnitOfWork;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import util.jpa.InMemoryPersistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameResultDaoTest {
+
+    private Injector injector;
+
+    private GameResultDao gameResultDao;
+
+    private PlayerStatisticsDao playerStatisticsDao;
+
+    @BeforeEach
+    void init() {
+        injector = Guice.createInjector(InMemoryPersistence.module());
+        gameResultDao = injector.getInstance(GameResultDao.class);
+        playerStatisticsDao = injector.getInstance(PlayerStatisticsDao.class);
+    }
+
+    private void persist(String player, boolean solved, int seconds) {
+        gameResultDao.persist(GameResult.builder()
+                .player(player)
+                .solved(solved)
+                .steps(seconds)
+                .duration(Duration.ofSeconds(seconds))
+                .build());
+    }
+
+    @Test
+    void testFindBestSummaries() {
+        persist("slow", true, 30);
+        persist("fast", true, 10);
+        persist("unsolved", false, 5);
+        persist("medium", true, 20);
+        var best = gameResultDao.findBest(2);
+        var summaries = gameResultDao.findBestSummaries(2);
+        assertEquals(2, summaries.size());
+        for (var i = 0; i < summaries.size(); i++) {
+            assertEquals(best.get(i).getPlayer(), summaries.get(i).player());
+            assertEquals(best.get(i).getSteps(), summaries.get(i).steps());
+            assertEquals(best.get(i).getDuration(), summaries.get(i).duration());
+            assertEquals(best.get(i).getCreated().toInstant(), summaries.get(i).created().toInstant());
+        }
+        assertEquals(3, gameResultDao.findBestSummaries(10).size());
+    }
+
+    @Test
+    void testFindReadOnly() {
+        persist("alice", true, 10);
+        assertTrue(playerStatisticsDao.findReadOnly("bob").isEmpty());
+        var unitOfWork = injector.getInstance(UnitOfWork.class);
+        unitOfWork.begin();
+        try {
+            var statistics = playerStatisticsDao.findReadOnly("alice").orElseThrow();
+            assertEquals(1, statistics.getGames());
+            assertTrue(playerStatisticsDao.getEntityManager().unwrap(Session.class).isReadOnly(statistics));
+            statistics.setGames(100);
+            persist("bob", false, 20);
+        } finally {
+            unitOfWork.end();
+        }
+        assertEquals(1, playerStatisticsDao.find("alice").orElseThrow().getGames());
+    }
+
+}
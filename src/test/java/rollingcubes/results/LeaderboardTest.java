@@ -0,0 +1,121 @@
+package rollingcubes.results;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.multibindings.Multibinder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import util.jpa.InMemoryPersistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardTest {
+
+    private GameResultDao gameResultDao;
+
+    private Leaderboard leaderboard;
+
+    @BeforeEach
+    void init() {
+        var injector = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                install(InMemoryPersistence.module());
+                Multibinder.newSetBinder(binder(), GameResultListener.class).addBinding().to(Leaderboard.class);
+            }
+        });
+        gameResultDao = injector.getInstance(GameResultDao.class);
+        leaderboard = injector.getInstance(Leaderboard.class);
+    }
+
+    private GameResult persist(String player, boolean solved, int seconds) {
+        var result = GameResult.builder()
+                .player(player)
+                .solved(solved)
+                .steps(seconds)
+                .duration(Duration.ofSeconds(seconds))
+                .build();
+        gameResultDao.persist(result);
+        return result;
+    }
+
+    @Test
+    void testResultPersisted() {
+        var slow = persist("slow", true, 30);
+        var fast = persist("fast", true, 10);
+        var unsolved = persist("unsolved", false, 5);
+        var medium = persist("medium", true, 20);
+        assertEquals(3, leaderboard.size());
+        assertEquals(1, leaderboard.rank(fast));
+        assertEquals(2, leaderboard.rank(medium));
+        assertEquals(3, leaderboard.rank(slow));
+        assertEquals(-1, leaderboard.rank(unsolved));
+        assertEquals(gameResultDao.findBest(10).stream().map(GameResult::getId).toList(),
+                leaderboard.top(10).stream().map(GameResult::getId).toList());
+    }
+
+    @Test
+    void testAround() {
+        for (var i = 1; i <= 20; i++) {
+            persist("player-" + i, true, i);
+        }
+        var around = leaderboard.around(10, 2);
+        assertEquals(5, around.size());
+        assertEquals("player-8", around.get(0).getPlayer());
+        assertEquals("player-12", around.get(4).getPlayer());
+        assertEquals(2, leaderboard.around(1, 1).size());
+    }
+
+    @Test
+    void testRebuild() {
+        var results = new GameResult[10];
+        for (var i = 0; i < results.length; i++) {
+            results[i] = persist("player-" + i, i % 3 != 0, 100 - i);
+        }
+        var rebuilt = new Leaderboard();
+        rebuilt.rebuild(gameResultDao);
+        assertEquals(leaderboard.size(), rebuilt.size());
+        for (var result : results) {
+            assertEquals(leaderboard.rank(result), rebuilt.rank(result));
+        }
+        assertEquals(leaderboard.top(10).stream().map(GameResult::getId).toList(),
+                rebuilt.top(10).stream().map(GameResult::getId).toList());
+    }
+
+    @Test
+    void testRebuild_shouldNotBlockQueries() throws Exception {
+        var before = persist("before", true, 20);
+        var scanning = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var blockingDao = new GameResultDao() {
+            @Override
+            public void forEachSolved(Consumer<GameResult> action) {
+                scanning.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                gameResultDao.forEachSolved(action);
+            }
+        };
+        var rebuild = CompletableFuture.runAsync(() -> leaderboard.rebuild(blockingDao));
+        scanning.await();
+        assertEquals(1, leaderboard.rank(before));
+        var during = persist("during", true, 10);
+        assertEquals(1, leaderboard.rank(during));
+        release.countDown();
+        rebuild.get();
+        assertEquals(2, leaderboard.size());
+        assertEquals(1, leaderboard.rank(during));
+        assertEquals(2, leaderboard.rank(before));
+    }
+
+}
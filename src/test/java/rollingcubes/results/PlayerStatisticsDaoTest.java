@@ -0,0 +1,94 @@
+package rollingcubes.results;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executors;
+
+import com.google.inject.Guice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import util.jpa.InMemoryPersistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerStatisticsDaoTest {
+
+    private GameResultDao gameResultDao;
+
+    private PlayerStatisticsDao playerStatisticsDao;
+
+    @BeforeEach
+    void init() {
+        var injector = Guice.createInjector(InMemoryPersistence.module());
+        gameResultDao = injector.getInstance(GameResultDao.class);
+        playerStatisticsDao = injector.getInstance(PlayerStatisticsDao.class);
+    }
+
+    private void persist(String player, boolean solved, int steps, int seconds) {
+        gameResultDao.persist(GameResult.builder()
+                .player(player)
+                .solved(solved)
+                .steps(steps)
+                .duration(Duration.ofSeconds(seconds))
+                .build());
+    }
+
+    @Test
+    void testAdd() {
+        persist("alice", false, 100, 50);
+        persist("alice", true, 40, 30);
+        persist("alice", true, 60, 20);
+        persist("alice", true, 50, 40);
+        persist("bob", false, 10, 5);
+
+        var alice = playerStatisticsDao.find("alice").orElseThrow();
+        assertEquals(4, alice.getGames());
+        assertEquals(3, alice.getSolvedGames());
+        assertEquals(250, alice.getTotalSteps());
+        assertEquals(0.75, alice.getSolveRate());
+        assertEquals(62.5, alice.getAverageSteps());
+        assertEquals(Duration.ofSeconds(20), alice.getBestDuration());
+        assertEquals(40, alice.getFewestSteps());
+
+        var bob = playerStatisticsDao.find("bob").orElseThrow();
+        assertEquals(1, bob.getGames());
+        assertEquals(0, bob.getSolveRate());
+        assertNull(bob.getBestDuration());
+        assertNull(bob.getFewestSteps());
+
+        assertTrue(playerStatisticsDao.find("carol").isEmpty());
+    }
+
+    @Test
+    void testAdd_concurrentNewPlayer() {
+        var threads = 8;
+        var executor = Executors.newFixedThreadPool(threads);
+        for (var round = 0; round < 5; round++) {
+            var player = "newcomer-" + round;
+            var barrier = new CyclicBarrier(threads);
+            var futures = new ArrayList<CompletableFuture<Void>>();
+            for (var i = 0; i < threads; i++) {
+                var steps = i + 1;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        barrier.await();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    persist(player, true, steps, steps);
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+            var statistics = playerStatisticsDao.find(player).orElseThrow();
+            assertEquals(threads, statistics.getGames());
+            assertEquals(threads * (threads + 1) / 2, statistics.getTotalSteps());
+            assertEquals(1, statistics.getFewestSteps());
+        }
+        executor.shutdown();
+    }
+
+}
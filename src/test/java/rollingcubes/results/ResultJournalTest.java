@@ -0,0 +1,233 @@
+package rollingcubes.results;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.LockTimeoutException;
+import javax.persistence.PersistenceException;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import util.jpa.InMemoryPersistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private Path path;
+
+    private String url;
+
+    private boolean schemaCreated;
+
+    /**
+     * DAO that fails to save the results, as a database that is locked.
+     */
+    public static class FailingGameResultDao extends GameResultDao {
+
+        @Override
+        protected void afterPersist(GameResult result) {
+            throw new LockTimeoutException("Database is locked");
+        }
+
+    }
+
+    /**
+     * DAO that rejects the results of the players whose name starts with
+     * {@code bad}, as a constraint of the database.
+     */
+    public static class RejectingGameResultDao extends GameResultDao {
+
+        @Override
+        protected void afterPersist(GameResult result) {
+            if (result.getPlayer().startsWith("bad")) {
+                throw new IllegalArgumentException("Invalid result");
+            }
+            super.afterPersist(result);
+        }
+
+    }
+
+    @BeforeEach
+    void init() {
+        path = directory.resolve("results.journal");
+        url = InMemoryPersistence.newUrl();
+    }
+
+    private GameResultDao createDao(boolean failing) {
+        return createDao(failing ? FailingGameResultDao.class : GameResultDao.class);
+    }
+
+    private GameResultDao createDao(Class<? extends GameResultDao> type) {
+        var createSchema = !schemaCreated;
+        schemaCreated = true;
+        var injector = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                install(InMemoryPersistence.module(url, createSchema));
+                if (type != GameResultDao.class) {
+                    bind(GameResultDao.class).to(type);
+                }
+            }
+        });
+        return injector.getInstance(GameResultDao.class);
+    }
+
+    private static GameResult createResult(String player) {
+        return GameResult.builder()
+                .player(player)
+                .solved(true)
+                .steps(42)
+                .duration(Duration.ofMillis(12_345))
+                .created(ZonedDateTime.now().truncatedTo(ChronoUnit.MICROS))
+                .build();
+    }
+
+    @Test
+    void testAppend() throws Exception {
+        var dao = createDao(false);
+        try (var journal = ResultJournal.open(path, 4, dao)) {
+            for (var i = 0; i < 10; i++) {
+                var result = createResult("player-" + i);
+                var saved = journal.append(result).get(10, TimeUnit.SECONDS);
+                assertNotNull(saved.getId());
+                assertEquals(result.getPlayer(), saved.getPlayer());
+                assertEquals(result.getSteps(), saved.getSteps());
+                assertEquals(result.getDuration(), saved.getDuration());
+                assertEquals(result.getCreated().toInstant(), saved.getCreated().toInstant());
+            }
+            assertEquals(10, dao.count());
+        }
+    }
+
+    @Test
+    void testRecovery() throws Exception {
+        try (var journal = ResultJournal.open(path, 4, createDao(true))) {
+            for (var i = 0; i < 3; i++) {
+                journal.append(createResult("player-" + i));
+            }
+            assertEquals(3, journal.getPendingCount());
+        }
+        var dao = createDao(false);
+        assertEquals(0, dao.count());
+        try (var journal = ResultJournal.open(path, 4, dao)) {
+            waitUntilSaved(journal);
+            assertEquals(3, dao.count());
+        }
+    }
+
+    @Test
+    void testRecovery_shouldNotDuplicateSavedResult() throws Exception {
+        var result = createResult("alice");
+        try (var journal = ResultJournal.open(path, 4, createDao(true))) {
+            journal.append(result);
+            journal.append(createResult("bob"));
+        }
+        // the process crashed after saving the first result but before flagging it
+        var dao = createDao(false);
+        dao.persist(result);
+        try (var journal = ResultJournal.open(path, 4, dao)) {
+            waitUntilSaved(journal);
+            assertEquals(2, dao.count());
+        }
+    }
+
+    @Test
+    void testRecovery_shouldDiscardCorruptRecord() throws Exception {
+        try (var journal = ResultJournal.open(path, 4, createDao(true))) {
+            journal.append(createResult("alice"));
+            journal.append(createResult("bob"));
+        }
+        try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), ResultJournal.RECORD_SIZE + 40);
+        }
+        var dao = createDao(false);
+        try (var journal = ResultJournal.open(path, 4, dao)) {
+            waitUntilSaved(journal);
+            assertEquals(1, dao.count());
+        }
+    }
+
+    @Test
+    void testAppend_shouldSkipRejectedResult() throws Exception {
+        var dao = createDao(RejectingGameResultDao.class);
+        try (var journal = ResultJournal.open(path, 4, dao)) {
+            var rejected = journal.append(createResult("bad"));
+            var saved = journal.append(createResult("alice")).get(10, TimeUnit.SECONDS);
+            assertNotNull(saved.getId());
+            var e = assertThrows(ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+            waitUntilSaved(journal);
+            assertEquals(1, dao.count());
+            assertEquals(ResultJournal.RECORD_SIZE, Files.size(journal.getDeadLetterPath()));
+        }
+        // the rejected result is not recovered
+        try (var journal = ResultJournal.open(path, 4, dao)) {
+            assertEquals(0, journal.getPendingCount());
+        }
+    }
+
+    @Test
+    void testIsRetryable() {
+        assertTrue(ResultJournal.isRetryable(new LockTimeoutException("Database is locked")));
+        assertTrue(ResultJournal.isRetryable(new PersistenceException(
+                new SQLException("Connection is broken", "08006"))));
+        assertFalse(ResultJournal.isRetryable(new PersistenceException(
+                new SQLException("Unique index violation", "23505"))));
+        assertFalse(ResultJournal.isRetryable(new IllegalArgumentException()));
+    }
+
+    @Test
+    void testAppend_shouldTruncateLongPlayerName() throws Exception {
+        var dao = createDao(false);
+        try (var journal = ResultJournal.open(path, 4, dao)) {
+            var saved = journal.append(createResult("é".repeat(200))).get(10, TimeUnit.SECONDS);
+            assertEquals("é".repeat(ResultJournal.MAX_PLAYER_LENGTH / 2), saved.getPlayer());
+        }
+    }
+
+    @Test
+    void testOpen_shouldFallBackWhenLocked() throws Exception {
+        var dao = createDao(false);
+        try (var first = ResultJournal.open(path, 4, dao);
+             var second = ResultJournal.open(path, 4, dao)) {
+            assertEquals(path, first.getPath());
+            assertEquals(directory.resolve("results-1.journal"), second.getPath());
+            for (var i = 0; i < 3; i++) {
+                first.append(createResult("first-" + i)).get(10, TimeUnit.SECONDS);
+                second.append(createResult("second-" + i)).get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(6, dao.count());
+        }
+        try (var journal = ResultJournal.open(path, 4, dao)) {
+            assertEquals(path, journal.getPath());
+        }
+    }
+
+    private static void waitUntilSaved(ResultJournal journal) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (journal.getPendingCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, journal.getPendingCount());
+    }
+
+}
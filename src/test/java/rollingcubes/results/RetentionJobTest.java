@@ -0,0 +1,97 @@
+package rollingcubes.results;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.multibindings.Multibinder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import util.jpa.InMemoryPersistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetentionJobTest {
+
+    private GameResultDao gameResultDao;
+
+    private Leaderboard leaderboard;
+
+    @BeforeEach
+    void init() {
+        var injector = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                install(InMemoryPersistence.module());
+                Multibinder.newSetBinder(binder(), GameResultListener.class).addBinding().to(Leaderboard.class);
+            }
+        });
+        gameResultDao = injector.getInstance(GameResultDao.class);
+        leaderboard = injector.getInstance(Leaderboard.class);
+    }
+
+    private GameResult persist(String player, boolean solved, int seconds) {
+        var result = GameResult.builder()
+                .player(player)
+                .solved(solved)
+                .steps(seconds)
+                .duration(Duration.ofSeconds(seconds))
+                .build();
+        gameResultDao.persist(result);
+        return result;
+    }
+
+    @Test
+    void testConstructor_invalid() {
+        assertThrows(IllegalArgumentException.class, () -> new RetentionJob(gameResultDao, -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new RetentionJob(gameResultDao, 3, 0));
+    }
+
+    @Test
+    void testRun() {
+        for (var i = 0; i < 250; i++) {
+            persist("player" + i % 120, i % 4 != 0, 1000 - i);
+        }
+        var solvedBefore = gameResultDao.findAll().stream()
+                .filter(GameResult::isSolved)
+                .collect(Collectors.groupingBy(GameResult::getPlayer));
+        var pruned = new RetentionJob(gameResultDao, 1, 7).run();
+
+        var remaining = gameResultDao.findAll();
+        assertEquals(250 - remaining.size(), pruned);
+        assertTrue(remaining.stream().allMatch(GameResult::isSolved));
+        var byPlayer = remaining.stream().collect(Collectors.groupingBy(GameResult::getPlayer));
+        assertEquals(solvedBefore.keySet(), byPlayer.keySet());
+        byPlayer.forEach((player, results) -> {
+            assertEquals(1, results.size());
+            var best = solvedBefore.get(player).stream().min(Leaderboard.ORDER).orElseThrow();
+            assertEquals(best.getId(), results.get(0).getId());
+        });
+        assertEquals(remaining.size(), leaderboard.size());
+        assertEquals(0, new RetentionJob(gameResultDao, 1, 7).run());
+    }
+
+    @Test
+    void testRun_keepsBest() {
+        var slow = persist("alice", true, 30);
+        var fast = persist("alice", true, 10);
+        var medium = persist("alice", true, 20);
+        persist("alice", false, 5);
+        var bob = persist("bob", true, 40);
+        leaderboard.rebuild(gameResultDao);
+        assertEquals(4, leaderboard.size());
+
+        assertEquals(2, new RetentionJob(gameResultDao, 2, 1).run());
+        assertTrue(gameResultDao.find(fast.getId()).isPresent());
+        assertTrue(gameResultDao.find(medium.getId()).isPresent());
+        assertTrue(gameResultDao.find(bob.getId()).isPresent());
+        assertFalse(gameResultDao.find(slow.getId()).isPresent());
+        assertEquals(3, leaderboard.size());
+        assertEquals(-1, leaderboard.rank(slow));
+        assertEquals(3, leaderboard.rank(bob));
+    }
+
+}
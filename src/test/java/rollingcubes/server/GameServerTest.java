@@ -0,0 +1,150 @@
+package rollingcubes.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rollingcubes.results.GameResult;
+import rollingcubes.solver.BidirectionalSolver;
+import rollingcubes.solver.Difficulty;
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+import rollingcubes.state.RollingCubesState;
+import util.metrics.Metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+
+    private static final int START = PackedState.pack(RollingCubesState.NEAR_GOAL);
+
+    private static final List<Direction> SOLUTION = new BidirectionalSolver().solve(START);
+
+    private final BlockingQueue<GameResult> results = new LinkedBlockingQueue<>();
+
+    private GameServer server;
+
+    @BeforeEach
+    void init() throws IOException {
+        server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                difficulty -> START, results::add);
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        server.close();
+    }
+
+    private GameClient connect() throws IOException {
+        return new GameClient(server.getAddress());
+    }
+
+    @Test
+    void testPlay() throws Exception {
+        try (var client = connect()) {
+            assertEquals(START, client.hello("alice", Difficulty.EASY));
+            var state = START;
+            for (var direction : SOLUTION) {
+                state = PackedState.move(state, direction);
+                assertEquals(state, client.move(direction));
+            }
+            assertTrue(client.finish());
+        }
+        var result = results.poll(10, TimeUnit.SECONDS);
+        assertNotNull(result);
+        assertEquals("alice", result.getPlayer());
+        assertTrue(result.isSolved());
+        assertEquals(SOLUTION.size(), result.getSteps());
+    }
+
+    @Test
+    void testMove_illegal() throws Exception {
+        try (var client = connect()) {
+            assertThrows(IllegalStateException.class, () -> client.move(Direction.UP));
+            client.hello("bob", Difficulty.EASY);
+            for (var direction : Direction.values()) {
+                if (PackedState.move(START, direction) == PackedState.NO_MOVE) {
+                    assertEquals(PackedState.NO_MOVE, client.move(direction));
+                }
+            }
+            assertFalse(client.finish());
+            assertThrows(IllegalStateException.class, client::finish);
+        }
+        var result = results.poll(10, TimeUnit.SECONDS);
+        assertNotNull(result);
+        assertFalse(result.isSolved());
+        assertEquals(0, result.getSteps());
+    }
+
+    @Test
+    void testConcurrentSessions() throws Exception {
+        var clientCount = 500;
+        var clients = new ArrayList<GameClient>();
+        try {
+            for (var i = 0; i < clientCount; i++) {
+                var client = connect();
+                clients.add(client);
+                client.hello("player-" + i, Difficulty.MEDIUM);
+            }
+            var executor = Executors.newFixedThreadPool(8);
+            var tasks = new ArrayList<Callable<Boolean>>();
+            for (var client : clients) {
+                tasks.add(() -> {
+                    for (var direction : SOLUTION) {
+                        client.move(direction);
+                    }
+                    return client.finish();
+                });
+            }
+            for (var future : executor.invokeAll(tasks)) {
+                assertTrue(future.get());
+            }
+            executor.shutdown();
+            assertEquals(clientCount, server.getConnectionCount());
+        } finally {
+            for (var client : clients) {
+                client.close();
+            }
+        }
+        for (var i = 0; i < clientCount; i++) {
+            assertNotNull(results.poll(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testFinish_shouldRetryFailedResult() throws Exception {
+        var failed = Metrics.counter("server.results.failed").getCount();
+        var attempts = new AtomicInteger();
+        try (var flaky = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                difficulty -> START, result -> {
+                    if (attempts.incrementAndGet() < 3 || result.getPlayer().equals("bob")) {
+                        throw new IllegalStateException("Database is locked");
+                    }
+                    results.add(result);
+                });
+             var client = new GameClient(flaky.getAddress())) {
+            client.hello("alice", Difficulty.EASY);
+            client.finish();
+            var result = results.poll(10, TimeUnit.SECONDS);
+            assertNotNull(result);
+            assertEquals("alice", result.getPlayer());
+            client.hello("bob", Difficulty.EASY);
+            client.finish();
+        }
+        assertEquals(failed + 1, Metrics.counter("server.results.failed").getCount());
+        assertEquals(6, attempts.get());
+    }
+
+}
@@ -0,0 +1,97 @@
+package rollingcubes.server;
+
+import org.junit.jupiter.api.Test;
+
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+import rollingcubes.state.RollingCubesState;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionStoreTest {
+
+    private static final int START = PackedState.pack(RollingCubesState.NEAR_GOAL);
+
+    @Test
+    void testCreate() {
+        var store = new SessionStore(1);
+        var id = store.create("alice", START, 42);
+        assertTrue(store.contains(id));
+        assertEquals("alice", store.getPlayer(id));
+        assertEquals(START, store.getState(id));
+        assertEquals(0, store.getSteps(id));
+        assertEquals(42, store.getStartNanos(id));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testMove() {
+        var store = new SessionStore(1);
+        var id = store.create("alice", START, 0);
+        var state = START;
+        var steps = 0;
+        for (var direction : Direction.values()) {
+            var expected = PackedState.move(state, direction);
+            assertEquals(expected, store.move(id, direction));
+            if (expected != PackedState.NO_MOVE) {
+                state = expected;
+                steps++;
+            }
+            assertEquals(state, store.getState(id));
+        }
+        assertEquals(steps, store.getSteps(id));
+    }
+
+    @Test
+    void testRemove() {
+        var store = new SessionStore(1);
+        var id = store.create("alice", START, 0);
+        store.remove(id);
+        assertFalse(store.contains(id));
+        assertEquals(0, store.size());
+        var other = store.create("bob", START, 0);
+        assertNotEquals(id, other);
+        assertFalse(store.contains(id));
+        assertTrue(store.contains(other));
+        assertThrows(IllegalArgumentException.class, () -> store.getState(id));
+        assertThrows(IllegalArgumentException.class, () -> store.remove(id));
+        assertThrows(IllegalArgumentException.class, () -> store.move(-1, Direction.UP));
+    }
+
+    @Test
+    void testRemove_shouldNotReuseIdsAfterManyGenerations() {
+        var store = new SessionStore(1);
+        var first = store.create("alice", START, 0);
+        store.remove(first);
+        for (var i = 0; i < 1 << 16; i++) {
+            var id = store.create("bob", START, 0);
+            assertNotEquals(first, id);
+            store.remove(id);
+        }
+        assertFalse(store.contains(first));
+    }
+
+    @Test
+    void testCreate_million() {
+        var store = new SessionStore(1);
+        var ids = new long[1_000_000];
+        for (var i = 0; i < ids.length; i++) {
+            ids[i] = store.create("player", START + i % 2, i);
+        }
+        assertEquals(ids.length, store.size());
+        for (var i = 0; i < ids.length; i += 2) {
+            store.remove(ids[i]);
+        }
+        for (var i = 0; i < ids.length; i++) {
+            assertEquals(i % 2 == 1, store.contains(ids[i]));
+        }
+        assertEquals(999_999, store.getStartNanos(ids[999_999]));
+    }
+
+    @Test
+    void testConstructor_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new SessionStore(0));
+        assertThrows(IllegalArgumentException.class, () -> new SessionStore(SessionStore.MAX_CAPACITY + 1));
+    }
+
+}
@@ -0,0 +1,53 @@
+package rollingcubes.solver;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+import rollingcubes.state.RollingCubesState;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BidirectionalSolverTest {
+
+    private final BidirectionalSolver solver = new BidirectionalSolver();
+
+    private static int apply(int state, List<Direction> moves) {
+        for (var direction : moves) {
+            state = PackedState.move(state, direction);
+            assertNotEquals(PackedState.NO_MOVE, state);
+        }
+        return state;
+    }
+
+    @Test
+    void testSolve() {
+        var nearGoal = new RollingCubesState(RollingCubesState.NEAR_GOAL);
+        var solution = solver.solve(nearGoal);
+        assertEquals(9, solution.size());
+        assertTrue(PackedState.isSolved(apply(PackedState.pack(nearGoal), solution)));
+        assertEquals(List.of(), solver.solve(PackedState.getGoal(4)));
+    }
+
+    @Test
+    void testSolve_isOptimal() {
+        var table = DistanceTable.getInstance();
+        var generator = StartPositionGenerator.getInstance();
+        var random = new SplittableRandom(42);
+        for (var distance = 1; distance <= table.getMaxDistance(); distance += 4) {
+            var state = generator.next(distance, random);
+            var solution = solver.solve(state);
+            assertEquals(distance, solution.size());
+            assertTrue(PackedState.isSolved(apply(state, solution)));
+        }
+    }
+
+    @Test
+    void testSolve_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(-1));
+    }
+
+}
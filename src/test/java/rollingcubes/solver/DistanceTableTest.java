@@ -0,0 +1,52 @@
+package rollingcubes.solver;
+
+import org.junit.jupiter.api.Test;
+
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+import rollingcubes.state.RollingCubesState;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceTableTest {
+
+    private final DistanceTable table = DistanceTable.getInstance();
+
+    @Test
+    void testGetDistance() {
+        assertEquals(34, table.getDistance(PackedState.pack(RollingCubesState.INITIAL)));
+        assertEquals(9, table.getDistance(PackedState.pack(RollingCubesState.NEAR_GOAL)));
+        for (var empty = 0; empty < PackedState.CELL_COUNT; empty++) {
+            assertEquals(0, table.getDistance(PackedState.getGoal(empty)));
+        }
+    }
+
+    @Test
+    void testGetDistance_neighborsDifferByOne() {
+        for (var index = 0; index < PackedState.STATE_COUNT; index += 7919) {
+            var state = PackedState.fromIndex(index);
+            var distance = table.getDistance(state);
+            var hasCloserNeighbor = false;
+            for (var direction : Direction.values()) {
+                var neighbor = PackedState.move(state, direction);
+                if (neighbor != PackedState.NO_MOVE) {
+                    assertTrue(Math.abs(table.getDistance(neighbor) - distance) <= 1);
+                    hasCloserNeighbor |= table.getDistance(neighbor) == distance - 1;
+                }
+            }
+            assertTrue(distance == 0 || hasCloserNeighbor);
+        }
+    }
+
+    @Test
+    void testGetHistogram() {
+        var histogram = table.getHistogram();
+        assertEquals(49, table.getMaxDistance());
+        assertEquals(50, histogram.length);
+        assertEquals(9, histogram[0]);
+        // every valid configuration is solvable, see RollingCubesState.isSolvable
+        assertEquals(PackedState.STATE_COUNT, table.getSolvableCount());
+        assertEquals(1892979, table.getCanonicalCount());
+    }
+
+}
@@ -0,0 +1,131 @@
+package rollingcubes.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import rollingcubes.state.Direction;
+import rollingcubes.state.PackedState;
+import rollingcubes.state.RollingCubesState;
+import rollingcubes.state.Symmetry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverTest {
+
+    private static int apply(int state, List<Direction> moves) {
+        for (var direction : moves) {
+            state = PackedState.move(state, direction);
+            assertNotEquals(PackedState.NO_MOVE, state);
+        }
+        return state;
+    }
+
+    @Test
+    void testSolve() {
+        var table = DistanceTable.getInstance();
+        var random = new SplittableRandom(7);
+        for (var solver : List.of(new Solver(table, 100), new Solver(100))) {
+            for (var distance = 0; distance <= 30; distance += 5) {
+                var state = StartPositionGenerator.getInstance().next(distance, random);
+                var solution = solver.solve(state);
+                assertEquals(distance, solution.size());
+                assertTrue(PackedState.isSolved(apply(state, solution)));
+            }
+        }
+    }
+
+    @Test
+    void testSolve_shouldUseCache() {
+        var solver = new Solver(DistanceTable.getInstance(), 100);
+        var state = PackedState.pack(new RollingCubesState(RollingCubesState.NEAR_GOAL));
+        var solution = solver.solve(state);
+        assertEquals(solution, solver.solve(state));
+        assertEquals(1, solver.getHitCount());
+        assertEquals(1, solver.getMissCount());
+        for (var g = 0; g < Symmetry.COUNT; g++) {
+            var image = Symmetry.apply(state, g);
+            var imageSolution = solver.solve(image);
+            assertEquals(solution.size(), imageSolution.size());
+            assertTrue(PackedState.isSolved(apply(image, imageSolution)));
+        }
+        assertEquals(1, solver.getMissCount());
+        assertEquals(1, solver.getCacheSize());
+    }
+
+    @Test
+    void testSolve_shouldEvictLeastRecentlyUsed() {
+        var solver = new Solver(DistanceTable.getInstance(), 2);
+        var generator = StartPositionGenerator.getInstance();
+        var random = new SplittableRandom(1);
+        var a = generator.next(10, random);
+        var b = generator.next(11, random);
+        var c = generator.next(12, random);
+        solver.solve(a);
+        solver.solve(b);
+        solver.solve(a);
+        solver.solve(c);
+        assertEquals(2, solver.getCacheSize());
+        solver.solve(a);
+        assertEquals(2, solver.getHitCount());
+        solver.solve(b);
+        assertEquals(4, solver.getMissCount());
+    }
+
+    @Test
+    void testSolveAll() {
+        var solver = new Solver(DistanceTable.getInstance(), 100);
+        var generator = StartPositionGenerator.getInstance();
+        var random = new SplittableRandom(3);
+        var a = generator.next(20, random);
+        var b = generator.next(25, random);
+        var solutions = solver.solveAll(a, b, a, a, b);
+        assertEquals(5, solutions.size());
+        assertEquals(2, solver.getMissCount());
+        assertEquals(0, solver.getHitCount());
+        assertEquals(20, solutions.get(2).size());
+        assertEquals(25, solutions.get(4).size());
+        assertSame(solutions.get(0), solutions.get(3));
+    }
+
+    @Test
+    void testSolutionIterator() {
+        var table = DistanceTable.getInstance();
+        var random = new SplittableRandom(11);
+        for (var solver : List.of(new Solver(table, 100), new Solver(100))) {
+            for (var distance = 0; distance <= 30; distance += 3) {
+                var state = StartPositionGenerator.getInstance().next(distance, random);
+                var iterator = solver.solutionIterator(state);
+                var moves = new ArrayList<Direction>();
+                iterator.forEachRemaining(moves::add);
+                assertEquals(solver.solve(state), moves);
+                assertFalse(iterator.hasNext());
+                assertThrows(NoSuchElementException.class, iterator::next);
+            }
+        }
+    }
+
+    @Test
+    void testSolutionIterator_shouldNotUseCache() {
+        var solver = new Solver(DistanceTable.getInstance(), 100);
+        var state = StartPositionGenerator.getInstance().next(25, new SplittableRandom(5));
+        var iterator = solver.solutionIterator(state);
+        assertTrue(iterator.hasNext());
+        assertNotEquals(PackedState.NO_MOVE, PackedState.move(state, iterator.next()));
+        assertEquals(0, solver.getCacheSize());
+        assertEquals(0, solver.getMissCount());
+    }
+
+    @Test
+    void testSolve_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new Solver(-1));
+        assertThrows(IllegalArgumentException.class, () -> new Solver(1).solve(-1));
+        assertThrows(IllegalArgumentException.class, () -> new Solver(1).solveAll(PackedState.getGoal(0), -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Solver(DistanceTable.getInstance(), 1).solutionIterator(-1));
+    }
+
+}
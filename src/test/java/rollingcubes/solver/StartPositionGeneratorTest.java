@@ -0,0 +1,32 @@
+package rollingcubes.solver;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartPositionGeneratorTest {
+
+    private final StartPositionGenerator generator = StartPositionGenerator.getInstance();
+
+    @Test
+    void testNext() {
+        var table = DistanceTable.getInstance();
+        var random = new SplittableRandom(42);
+        assertEquals(table.getMaxDistance(), generator.getMaxDistance());
+        for (var distance = 0; distance <= generator.getMaxDistance(); distance++) {
+            for (var i = 0; i < 10; i++) {
+                assertEquals(distance, table.getDistance(generator.next(distance, random)));
+            }
+        }
+    }
+
+    @Test
+    void testNext_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> generator.next(-1));
+        assertThrows(IllegalArgumentException.class, () -> generator.next(generator.getMaxDistance() + 1));
+    }
+
+}
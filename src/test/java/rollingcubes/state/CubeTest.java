@@ -37,6 +37,19 @@ class CubeTest {
         );
     }
 
+    @Test
+    void testRollBack() {
+        for (var cube : Cube.values()) {
+            if (cube != Cube.EMPTY) {
+                for (var direction : Direction.values()) {
+                    assertEquals(cube, cube.rollTo(direction).rollBack(direction));
+                    assertEquals(cube, cube.rollBack(direction).rollTo(direction));
+                }
+            }
+        }
+        assertThrows(UnsupportedOperationException.class, () -> Cube.EMPTY.rollBack(Direction.UP));
+    }
+
     @Test
     void testRollTo_shouldThrowUnsupportedOperationException() {
         assertThrows(UnsupportedOperationException.class, () -> Cube.EMPTY.rollTo(Direction.UP));
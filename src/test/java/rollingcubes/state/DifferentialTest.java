@@ -0,0 +1,177 @@
+package rollingcubes.state;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import rollingcubes.solver.DistanceTable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Differential tests that replay random move sequences on the reference
+ * model, that is {@link RollingCubesState} and {@link Cube#rollTo}, and
+ * check that the fast paths built on lookup tables, namely the packed
+ * states, the symmetries and the distance table, agree with it after each
+ * move. Each sequence starts from a uniformly random state and is generated
+ * from its own seed, which is reported on failure, thus a failing sequence
+ * can be replayed by passing {@code -Ddifferential.seed=<seed>
+ * -Ddifferential.sequences=1} to the test run.
+ */
+class DifferentialTest {
+
+    private static final long SEED = Long.getLong("differential.seed", 20221019L);
+
+    private static final int SEQUENCES = Integer.getInteger("differential.sequences", 20_000);
+
+    private static final int SEQUENCE_LENGTH = 100;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * The transitions of the orientations of a cube rolled to each
+     * direction, as specified by the rules of the puzzle. Rows correspond
+     * to orientations, columns correspond to directions.
+     */
+    private static final int[][] TRANSITIONS = {
+            {3, 4, 2, 5},
+            {1, 2, 6, 2},
+            {6, 3, 1, 3},
+            {4, 6, 4, 1},
+            {5, 1, 5, 6},
+            {2, 5, 3, 4}
+    };
+
+    @Test
+    void testRollTo_matchesTransitions() {
+        for (var value = 1; value <= TRANSITIONS.length; value++) {
+            for (var direction : DIRECTIONS) {
+                var expected = TRANSITIONS[value - 1][direction.ordinal()];
+                assertEquals(expected, Cube.of(value).rollTo(direction).getValue());
+                assertEquals(value, Cube.of(expected).rollBack(direction).getValue());
+                for (var empty = 0; empty < PackedState.CELL_COUNT; empty++) {
+                    // a state whose only cube differing from the goal is next to the empty space
+                    var row = empty / RollingCubesState.TRAY_SIZE - direction.getRowChange();
+                    var col = empty % RollingCubesState.TRAY_SIZE - direction.getColChange();
+                    if (0 <= row && row < RollingCubesState.TRAY_SIZE && 0 <= col && col < RollingCubesState.TRAY_SIZE) {
+                        var a = PackedState.toArray(PackedState.getGoal(empty));
+                        a[row][col] = value;
+                        var next = PackedState.toArray(PackedState.move(PackedState.pack(a), direction));
+                        assertEquals(expected, next[empty / RollingCubesState.TRAY_SIZE][empty % RollingCubesState.TRAY_SIZE]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRandomSequences() {
+        var table = DistanceTable.getInstance();
+        var seeds = new SplittableRandom(SEED);
+        var moves = 0L;
+        for (var i = 0; i < SEQUENCES; i++) {
+            var seed = i == 0 ? SEED : seeds.nextLong();
+            moves += replay(table, seed);
+        }
+        assertTrue(moves >= (long) SEQUENCES * SEQUENCE_LENGTH / 2);
+    }
+
+    /**
+     * Replays a random move sequence on the reference model and on the
+     * packed state, then undoes it.
+     *
+     * @return the number of moves made
+     */
+    private static int replay(DistanceTable table, long seed) {
+        var random = new SplittableRandom(seed);
+        var packed = PackedState.fromIndex(random.nextInt(PackedState.STATE_COUNT));
+        var reference = new RollingCubesState(PackedState.toArray(packed));
+        var rolled = new int[4];
+        reference.addRollListener((fromRow, fromCol, toRow, toCol) -> {
+            rolled[0] = fromRow;
+            rolled[1] = fromCol;
+            rolled[2] = toRow;
+            rolled[3] = toCol;
+        });
+        var history = new int[SEQUENCE_LENGTH + 1];
+        var directions = new Direction[SEQUENCE_LENGTH];
+        history[0] = packed;
+        var count = 0;
+        for (var step = 0; step < SEQUENCE_LENGTH; step++) {
+            check(packed, reference, table, seed, step);
+            var direction = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+            var row = reference.getEmptyRow() - direction.getRowChange();
+            var col = reference.getEmptyCol() - direction.getColChange();
+            var next = PackedState.move(packed, direction);
+            if (!reference.canRollToEmptySpace(row, col)) {
+                verify(next == PackedState.NO_MOVE, "move is rejected", seed, step, packed);
+                verify(PackedState.unmove(packed, direction.opposite()) == PackedState.NO_MOVE,
+                        "unmove is rejected", seed, step, packed);
+                continue;
+            }
+            var cube = reference.getCube(row, col);
+            var emptyRow = reference.getEmptyRow();
+            var emptyCol = reference.getEmptyCol();
+            verify(reference.getRollDirection(row, col) == direction, "roll direction", seed, step, packed);
+            reference.rollToEmptySpace(row, col);
+            verify(rolled[0] == row && rolled[1] == col && rolled[2] == emptyRow && rolled[3] == emptyCol,
+                    "roll listener", seed, step, packed);
+            verify(reference.getCube(emptyRow, emptyCol) == cube.rollTo(direction), "rolled cube", seed, step, packed);
+            verify(next == PackedState.pack(reference), "move", seed, step, packed);
+            verify(PackedState.unmove(next, direction) == packed, "unmove", seed, step, packed);
+            var distance = table.getDistance(packed);
+            verify(Math.abs(table.getDistance(next) - distance) <= 1, "distance of neighbor", seed, step, packed);
+            var g = random.nextInt(Symmetry.COUNT);
+            verify(Symmetry.apply(next, g) == PackedState.move(Symmetry.apply(packed, g), Symmetry.apply(direction, g)),
+                    "symmetry", seed, step, packed);
+            packed = next;
+            directions[count] = direction;
+            history[++count] = packed;
+        }
+        check(packed, reference, table, seed, SEQUENCE_LENGTH);
+        for (var step = count - 1; step >= 0; step--) {
+            var direction = directions[step];
+            packed = PackedState.unmove(packed, direction);
+            verify(packed == history[step], "undo", seed, step, history[step + 1]);
+            // the cube is rolled back from the position that was empty before the move
+            var row = reference.getEmptyRow() + direction.getRowChange();
+            var col = reference.getEmptyCol() + direction.getColChange();
+            reference.rollToEmptySpace(row, col);
+            verify(PackedState.pack(reference) == packed, "reference undo", seed, step, history[step + 1]);
+        }
+        check(packed, reference, table, seed, 0);
+        return count;
+    }
+
+    /**
+     * Checks the derived values of a packed state against the reference
+     * model.
+     */
+    private static void check(int packed, RollingCubesState reference, DistanceTable table, long seed, int step) {
+        var tray = reference.getTray();
+        var solved = true;
+        for (var row : tray) {
+            for (var cube : row) {
+                solved &= cube == Cube.CUBE6 || cube == Cube.EMPTY;
+            }
+        }
+        verify(PackedState.pack(reference) == packed, "pack", seed, step, packed);
+        verify(PackedState.isSolvable(packed), "valid encoding", seed, step, packed);
+        verify(PackedState.getEmptyIndex(packed) == reference.getEmptyRow() * RollingCubesState.TRAY_SIZE
+                + reference.getEmptyCol(), "empty space", seed, step, packed);
+        verify(reference.isSolved() == solved, "solved property", seed, step, packed);
+        verify(PackedState.isSolved(packed) == solved, "solved", seed, step, packed);
+        verify((table.getDistance(packed) == 0) == solved, "distance of goal", seed, step, packed);
+        verify(PackedState.fromIndex(PackedState.toIndex(packed)) == packed, "dense index", seed, step, packed);
+        verify(Symmetry.apply(Symmetry.apply(packed, 1), Symmetry.inverse(1)) == packed, "inverse symmetry",
+                seed, step, packed);
+    }
+
+    private static void verify(boolean condition, String property, long seed, int step, int packed) {
+        if (!condition) {
+            fail(String.format("%s differs from the reference at step %d of the sequence with seed %d in state%n%s",
+                    property, step, seed, PackedState.toString(packed)));
+        }
+    }
+
+}
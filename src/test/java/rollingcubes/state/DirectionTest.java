@@ -17,6 +17,9 @@ class DirectionTest {
     @Test
     void testOf_shouldThrowIllegalArgumentException() {
         assertThrows(IllegalArgumentException.class, () -> Direction.of(1, 1));
+        assertThrows(IllegalArgumentException.class, () -> Direction.of(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> Direction.of(2, 0));
+        assertThrows(IllegalArgumentException.class, () -> Direction.of(0, -2));
     }
 
 }
@@ -0,0 +1,88 @@
+package rollingcubes.state;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedStateTest {
+
+    @Test
+    void testPack() {
+        var state = new RollingCubesState(RollingCubesState.NEAR_GOAL);
+        assertEquals(PackedState.pack(RollingCubesState.NEAR_GOAL), PackedState.pack(state));
+        assertArrayEquals(RollingCubesState.NEAR_GOAL, PackedState.toArray(PackedState.pack(state)));
+        assertEquals(1, PackedState.getEmptyIndex(PackedState.pack(state)));
+        assertEquals(state.toString(), PackedState.toString(PackedState.pack(state)));
+    }
+
+    @Test
+    void testToIndex() {
+        assertEquals(9 * 1679616, PackedState.STATE_COUNT);
+        for (var index = 0; index < PackedState.STATE_COUNT; index += 9973) {
+            assertEquals(index, PackedState.toIndex(PackedState.fromIndex(index)));
+        }
+        assertEquals(PackedState.STATE_COUNT - 1, PackedState.toIndex(PackedState.fromIndex(PackedState.STATE_COUNT - 1)));
+    }
+
+    @Test
+    void testIsSolvable() {
+        assertTrue(PackedState.isSolvable(PackedState.pack(RollingCubesState.INITIAL)));
+        assertTrue(PackedState.isSolvable(PackedState.fromIndex(PackedState.STATE_COUNT - 1)));
+        assertFalse(PackedState.isSolvable(-1));
+        assertFalse(PackedState.isSolvable(PackedState.pack(RollingCubesState.INITIAL) ^ 1));
+        assertFalse(PackedState.isSolvable(PackedState.getGoal(0) | 7 << 3));
+        assertFalse(PackedState.isSolvable(PackedState.getGoal(0) + (9 << 27)));
+    }
+
+    @Test
+    void testIsSolved() {
+        assertFalse(PackedState.isSolved(PackedState.pack(RollingCubesState.INITIAL)));
+        assertTrue(PackedState.isSolved(PackedState.pack(new int[][] {
+                {6, 6, 6},
+                {6, 6, 6},
+                {6, 6, 0}})));
+        for (var empty = 0; empty < PackedState.CELL_COUNT; empty++) {
+            assertTrue(PackedState.isSolved(PackedState.getGoal(empty)));
+            assertEquals(empty, PackedState.getEmptyIndex(PackedState.getGoal(empty)));
+        }
+    }
+
+    @Test
+    void testMove() {
+        var state = new RollingCubesState(RollingCubesState.NEAR_GOAL);
+        var packed = PackedState.pack(state);
+        for (var direction : Direction.values()) {
+            var row = state.getEmptyRow() - direction.getRowChange();
+            var col = state.getEmptyCol() - direction.getColChange();
+            if (state.canRollToEmptySpace(row, col)) {
+                var expected = new RollingCubesState(RollingCubesState.NEAR_GOAL);
+                expected.rollToEmptySpace(row, col);
+                assertEquals(PackedState.pack(expected), PackedState.move(packed, direction));
+                assertEquals(packed, PackedState.move(PackedState.move(packed, direction), direction.opposite()));
+                assertEquals(packed, PackedState.unmove(PackedState.move(packed, direction), direction));
+            } else {
+                assertEquals(PackedState.NO_MOVE, PackedState.move(packed, direction));
+                assertEquals(PackedState.NO_MOVE, PackedState.unmove(packed, direction.opposite()));
+            }
+        }
+    }
+
+    @Test
+    void testMove_allPositions() {
+        for (var empty = 0; empty < PackedState.CELL_COUNT; empty++) {
+            var packed = PackedState.getGoal(empty);
+            for (var direction : Direction.values()) {
+                var state = new RollingCubesState(PackedState.toArray(packed));
+                var row = state.getEmptyRow() - direction.getRowChange();
+                var col = state.getEmptyCol() - direction.getColChange();
+                if (state.canRollToEmptySpace(row, col)) {
+                    state.rollToEmptySpace(row, col);
+                    assertEquals(PackedState.pack(state), PackedState.move(packed, direction));
+                } else {
+                    assertEquals(PackedState.NO_MOVE, PackedState.move(packed, direction));
+                }
+            }
+        }
+    }
+
+}
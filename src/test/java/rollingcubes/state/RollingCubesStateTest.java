@@ -3,7 +3,11 @@ package rollingcubes.state;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class RollingCubesStateTest {
 
@@ -66,6 +70,21 @@ class RollingCubesStateTest {
         assertEmptySpace(1, 1, state);
     }
 
+    @Test
+    void testIsSolvable() {
+        assertTrue(RollingCubesState.isSolvable(RollingCubesState.INITIAL));
+        assertTrue(RollingCubesState.isSolvable(RollingCubesState.NEAR_GOAL));
+        assertTrue(RollingCubesState.isSolvable(new int[][] {
+                {2, 3, 4},
+                {5, 6, 1},
+                {2, 3, 0}}));
+        assertFalse(RollingCubesState.isSolvable(null));
+        assertFalse(RollingCubesState.isSolvable(new int[][] {
+                {1, 1, 1},
+                {1, 1, 1},
+                {1, 1, 1}}));
+    }
+
     @Test
     void testIsSolved() {
         assertFalse(state.isSolved());
@@ -124,6 +143,41 @@ class RollingCubesStateTest {
         assertEquals(cube, state.getTray()[0][1]); // the cube rolled now should be at (0, 1) again in its original orientation
     }
 
+    @Test
+    void testRollListener() {
+        var events = new ArrayList<int[]>();
+        RollingCubesState.RollListener listener = (fromRow, fromCol, toRow, toCol) -> events.add(new int[] {fromRow, fromCol, toRow, toCol});
+        state.addRollListener(listener);
+        state.rollToEmptySpace(0, 1);
+        state.rollToEmptySpace(0, 0);
+        assertEquals(2, events.size());
+        assertArrayEquals(new int[] {0, 1, 1, 1}, events.get(0));
+        assertArrayEquals(new int[] {0, 0, 0, 1}, events.get(1));
+        state.removeRollListener(listener);
+        state.rollToEmptySpace(0, 1);
+        assertEquals(2, events.size());
+    }
+
+    @Test
+    void testRollToEmptySpace_shouldNotAllocate() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        var threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled());
+        var threadId = Thread.currentThread().getId();
+        rollBackAndForth(100_000); // warm-up
+        var allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        rollBackAndForth(1_000_000);
+        var allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertTrue(allocated < 1024, () -> String.format("%d bytes allocated by 1000000 moves", allocated));
+    }
+
+    private void rollBackAndForth(int moves) {
+        for (var i = 0; i < moves; i += 2) {
+            state.rollToEmptySpace(0, 1);
+            state.rollToEmptySpace(1, 1);
+        }
+    }
+
     @Test
     void testToString() {
         assertEquals("1 1 1 \n"
@@ -0,0 +1,84 @@
+package rollingcubes.state;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymmetryTest {
+
+    @Test
+    void testApply_identity() {
+        var state = PackedState.pack(RollingCubesState.NEAR_GOAL);
+        assertEquals(state, Symmetry.apply(state, 0));
+        for (var direction : Direction.values()) {
+            assertEquals(direction, Symmetry.apply(direction, 0));
+        }
+    }
+
+    @Test
+    void testApply_commutesWithMoves() {
+        var random = new SplittableRandom(42);
+        for (var i = 0; i < 10_000; i++) {
+            var state = PackedState.fromIndex(random.nextInt(PackedState.STATE_COUNT));
+            for (var g = 0; g < Symmetry.COUNT; g++) {
+                var image = Symmetry.apply(state, g);
+                assertTrue(PackedState.isSolvable(image));
+                for (var direction : Direction.values()) {
+                    var next = PackedState.move(state, direction);
+                    var expected = next == PackedState.NO_MOVE ? PackedState.NO_MOVE : Symmetry.apply(next, g);
+                    assertEquals(expected, PackedState.move(image, Symmetry.apply(direction, g)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testApply_mapsGoalsToGoals() {
+        for (var empty = 0; empty < PackedState.CELL_COUNT; empty++) {
+            for (var g = 0; g < Symmetry.COUNT; g++) {
+                assertTrue(PackedState.isSolved(Symmetry.apply(PackedState.getGoal(empty), g)));
+            }
+        }
+    }
+
+    @Test
+    void testInverse() {
+        var state = PackedState.pack(RollingCubesState.NEAR_GOAL);
+        for (var g = 0; g < Symmetry.COUNT; g++) {
+            assertEquals(state, Symmetry.apply(Symmetry.apply(state, g), Symmetry.inverse(g)));
+            for (var direction : Direction.values()) {
+                assertEquals(direction, Symmetry.apply(Symmetry.apply(direction, g), Symmetry.inverse(g)));
+            }
+        }
+    }
+
+    @Test
+    void testCanonical() {
+        var state = PackedState.pack(RollingCubesState.NEAR_GOAL);
+        var canonical = Symmetry.canonical(state);
+        assertTrue(canonical <= state);
+        for (var g = 0; g < Symmetry.COUNT; g++) {
+            assertEquals(canonical, Symmetry.canonical(Symmetry.apply(state, g)));
+        }
+    }
+
+    @Test
+    void testOrbitSize() {
+        assertEquals(8, Symmetry.orbitSize(PackedState.pack(RollingCubesState.NEAR_GOAL)));
+        assertEquals(1, Symmetry.orbitSize(PackedState.pack(RollingCubesState.INITIAL)));
+        assertEquals(4, Symmetry.orbitSize(PackedState.getGoal(0)));
+        var images = new int[Symmetry.COUNT];
+        for (var empty = 0; empty < PackedState.CELL_COUNT; empty++) {
+            var goal = PackedState.getGoal(empty);
+            assertEquals(Symmetry.orbit(goal, images), Symmetry.orbitSize(goal));
+        }
+        var random = new SplittableRandom(42);
+        for (var i = 0; i < 10_000; i++) {
+            var state = PackedState.fromIndex(random.nextInt(PackedState.STATE_COUNT));
+            assertEquals(Symmetry.orbit(state, images), Symmetry.orbitSize(state));
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package rollingcubes.tournament;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import rollingcubes.solver.DistanceTable;
+import rollingcubes.solver.StartPositionGenerator;
+import rollingcubes.state.PackedState;
+import rollingcubes.state.RollingCubesState;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+
+    @Test
+    void testConstructor_invalid() {
+        var table = DistanceTable.getInstance();
+        var start = PackedState.pack(new RollingCubesState());
+        var interval = Duration.ofMillis(1);
+        assertThrows(IllegalArgumentException.class,
+                () -> new Tournament(table, start, new double[]{0.0}, interval, 1, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Tournament(table, start, new double[]{1.5}, interval, 1, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Tournament(table, start, new double[]{0.5}, interval, 0, 0));
+    }
+
+    @Test
+    void testSpreadSkills() {
+        assertArrayEquals(new double[]{0.5, 0.75, 1.0}, Tournament.spreadSkills(3, 0.5, 1.0), 1e-9);
+        assertArrayEquals(new double[]{0.9}, Tournament.spreadSkills(1, 0.5, 0.9));
+    }
+
+    @Test
+    void testPlay() throws InterruptedException {
+        var table = DistanceTable.getInstance();
+        var start = StartPositionGenerator.getInstance().next(15, new SplittableRandom(1));
+        var skills = new double[]{0.5, 0.8, 1.0, 1.0, 1.0};
+        try (var tournament = new Tournament(table, start, skills, Duration.ofMillis(1), 2, 42)) {
+            for (var i = 0; i < skills.length; i++) {
+                assertEquals(new Tournament.Progress(start, 0, 15), tournament.getProgress(i));
+            }
+            tournament.start();
+            var deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+            while (!tournament.isFinished() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(tournament.isFinished());
+            for (var i = 0; i < skills.length; i++) {
+                var progress = tournament.getProgress(i);
+                assertTrue(progress.isFinished());
+                assertEquals(table.getDistance(progress.state()), progress.distance());
+                if (skills[i] == 1.0) {
+                    assertTrue(progress.isSolved());
+                    assertTrue(PackedState.isSolved(progress.state()));
+                    assertEquals(15, progress.steps());
+                }
+            }
+        }
+    }
+
+}
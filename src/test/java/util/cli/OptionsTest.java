@@ -0,0 +1,24 @@
+package util.cli;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptionsTest {
+
+    @Test
+    void testParse() {
+        assertEquals(Map.of(), Options.parse(new String[0]));
+        assertEquals(Map.of("port", "7777", "url", "jdbc:h2:mem:a=b", "name", ""),
+                Options.parse(new String[]{"--port=7777", "--url=jdbc:h2:mem:a=b", "--name="}));
+    }
+
+    @Test
+    void testParse_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> Options.parse(new String[]{"port=7777"}));
+        assertThrows(IllegalArgumentException.class, () -> Options.parse(new String[]{"--port"}));
+    }
+
+}
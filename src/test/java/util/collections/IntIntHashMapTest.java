@@ -0,0 +1,49 @@
+package util.collections;
+
+import java.util.HashMap;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntHashMapTest {
+
+    @Test
+    void testPutIfAbsent() {
+        var map = new IntIntHashMap(1);
+        var expected = new HashMap<Integer, Integer>();
+        var random = new SplittableRandom(42);
+        for (var i = 0; i < 100_000; i++) {
+            var key = random.nextInt(50_000);
+            var value = random.nextInt(1000);
+            assertEquals(expected.putIfAbsent(key, value) == null, map.putIfAbsent(key, value));
+        }
+        assertEquals(expected.size(), map.size());
+        for (var key = 0; key < 50_000; key++) {
+            assertEquals(expected.getOrDefault(key, IntIntHashMap.NO_VALUE), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+    }
+
+    @Test
+    void testClear() {
+        var map = new IntIntHashMap(1);
+        for (var key = 0; key < 100; key++) {
+            map.putIfAbsent(key, key);
+        }
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(42));
+        assertTrue(map.putIfAbsent(42, 1));
+        assertEquals(1, map.get(42));
+    }
+
+    @Test
+    void testPutIfAbsent_shouldThrowIllegalArgumentException() {
+        var map = new IntIntHashMap(16);
+        assertThrows(IllegalArgumentException.class, () -> map.putIfAbsent(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> map.putIfAbsent(0, IntIntHashMap.NO_VALUE));
+    }
+
+}
@@ -0,0 +1,71 @@
+package util.collections;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStatisticTreeTest {
+
+    @Test
+    void testAddAndRemove() {
+        var tree = new OrderStatisticTree<Integer>(Comparator.naturalOrder());
+        var expected = new TreeSet<Integer>();
+        var random = new Random(42);
+        for (var i = 0; i < 10_000; i++) {
+            var element = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(element), tree.add(element));
+            } else {
+                assertEquals(expected.remove(element), tree.remove(element));
+            }
+        }
+        assertEquals(expected.size(), tree.size());
+        var sorted = new ArrayList<>(expected);
+        for (var i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i), tree.get(i));
+            assertEquals(i, tree.indexOf(sorted.get(i)));
+        }
+        assertEquals(sorted, tree.range(0, tree.size()));
+        assertEquals(sorted.subList(10, 20), tree.range(10, 20));
+    }
+
+    @Test
+    void testIndexOf() {
+        var tree = new OrderStatisticTree<String>(Comparator.naturalOrder());
+        tree.add("b");
+        tree.add("a");
+        tree.add("c");
+        assertEquals(0, tree.indexOf("a"));
+        assertEquals(2, tree.indexOf("c"));
+        assertEquals(-1, tree.indexOf("d"));
+    }
+
+    @Test
+    void testRange() {
+        var tree = new OrderStatisticTree<Integer>(Comparator.naturalOrder());
+        for (var i = 0; i < 10; i++) {
+            tree.add(i);
+        }
+        assertEquals(List.of(0, 1, 2), tree.range(-5, 3));
+        assertEquals(List.of(8, 9), tree.range(8, 20));
+        assertEquals(List.of(), tree.range(5, 5));
+        tree.clear();
+        assertEquals(0, tree.size());
+        assertEquals(List.of(), tree.range(0, 10));
+    }
+
+    @Test
+    void testGet_shouldThrowIndexOutOfBoundsException() {
+        var tree = new OrderStatisticTree<Integer>(Comparator.naturalOrder());
+        tree.add(1);
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(-1));
+    }
+
+}
@@ -0,0 +1,47 @@
+package util.jpa;
+
+import java.util.Map;
+
+import util.guice.PersistenceModule;
+
+/**
+ * Creates persistence modules backed by private in-memory H2 databases, so
+ * that each test works on an empty database of its own.
+ */
+public final class InMemoryPersistence {
+
+    private InMemoryPersistence() {
+    }
+
+    /**
+     * {@return the URL of a new in-memory database, that is kept until the
+     * virtual machine exits}
+     */
+    public static String newUrl() {
+        return "jdbc:h2:mem:" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * {@return a persistence module using a new in-memory database with the
+     * schema created}
+     */
+    public static PersistenceModule module() {
+        return module(newUrl(), true);
+    }
+
+    /**
+     * {@return a persistence module using the database specified}
+     *
+     * @param url the URL of the database
+     * @param createSchema whether the schema is created when the module is
+     *                     initialized, that is only needed for the first
+     *                     module using a database
+     */
+    public static PersistenceModule module(String url, boolean createSchema) {
+        return new PersistenceModule("rolling-cubes", Map.of(
+                "javax.persistence.jdbc.url", url,
+                "javax.persistence.schema-generation.database.action", createSchema ? "create" : "none",
+                "javax.persistence.schema-generation.scripts.action", "none"));
+    }
+
+}